@@ -0,0 +1,16 @@
+package ch.semafor.gendas.dao.jpa;
+
+import ch.semafor.gendas.model.CurrentValueList;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+@Profile("jpa")
+public interface CurrentValueListRepositoryJpa extends JpaRepository<CurrentValueList, Long> {
+    // remove search projection of an element
+    @Modifying
+    @Query("delete from CurrentValueList c where c.elementId = ?1")
+    int deleteByElementId(Long elementId);
+}
@@ -8,6 +8,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 @Profile("jpa")
@@ -30,4 +31,13 @@ public interface ElementRepositoryJpa extends JpaRepository<Element, Long>, Elem
     @Query("SELECT e FROM Element e WHERE e.elementType.name=?1 "
             + "AND 9999999 = (SELECT MAX(m.nextRevision) FROM e.modifications m)")
     List<Element> findByType(final String type);
+
+    /**
+     * Find the versions of elements
+     *
+     * @param ids of the elements
+     * @return List of id and version pairs
+     */
+    @Query("SELECT e.id, e.version FROM Element e WHERE e.id IN ?1")
+    List<Object[]> findVersions(final Collection<Long> ids);
 }
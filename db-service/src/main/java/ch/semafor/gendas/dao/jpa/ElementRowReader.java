@@ -0,0 +1,148 @@
+package ch.semafor.gendas.dao.jpa;
+
+import ch.semafor.gendas.model.Element;
+import ch.semafor.gendas.model.PackedValues;
+import ch.semafor.gendas.model.PropertyValue;
+import ch.semafor.gendas.model.TableModification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * reads the current property values of elements with plain sql
+ * and builds the property maps without loading entities
+ * (same values as Element.toMap, references are not read)
+ */
+@Repository
+@Profile("jpa")
+public class ElementRowReader {
+    private static final Logger logger = LoggerFactory.getLogger(ElementRowReader.class);
+
+    private static final String FROM = " FROM properties p"
+            + " JOIN property_types t ON p.property_type_id = t.id"
+            + " JOIN property_value_list l ON l.property_id = p.id AND l.next_revision = :rev";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public ElementRowReader(DataSource dataSource, @Value("${app.rowReaderFetchSize:500}") int fetchSize) {
+        this.jdbc = new NamedParameterJdbcTemplate(dataSource);
+        this.jdbc.getJdbcTemplate().setFetchSize(fetchSize);
+    }
+
+    /**
+     * read current property values of elements
+     *
+     * @param ids    of elements
+     * @param pnames property names, all if null or empty (dotted names are ignored)
+     * @return map of element id to map of property name and value
+     */
+    public Map<Long, Map<String, Object>> readProperties(Collection<Long> ids, List<String> pnames) {
+        Map<Long, Map<String, Object>> maps = new LinkedHashMap<Long, Map<String, Object>>();
+        if (ids.isEmpty()) {
+            return maps;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("rev", TableModification.MaxRevision);
+        String where = " WHERE p.element_id IN (:ids)";
+        if (pnames != null && !pnames.isEmpty()) {
+            List<String> names = pnames.stream().filter(n -> n.indexOf('.') < 0).toList();
+            if (names.isEmpty()) {
+                return maps;
+            }
+            params.addValue("names", names);
+            where += " AND t.name IN (:names)";
+        }
+
+        Map<Long, List<Integer>> dims = new HashMap<Long, List<Integer>>();
+        jdbc.query("SELECT d.propertyvaluelist_id, d.dims" + FROM
+                + " JOIN propertyvaluelist_dimensions d ON d.propertyvaluelist_id = l.id" + where, params, rs -> {
+            dims.computeIfAbsent(rs.getLong(1), k -> new ArrayList<Integer>()).add(rs.getInt(2));
+        });
+
+        ValueList[] current = {null};
+        jdbc.query("SELECT p.element_id, t.name, l.id, l.packed_values,"
+                + " v.svalue, v.dvalue, v.ivalue, v.lvalue, v.date_value, v.decimal_value, v.bool, v.text, v.id" + FROM
+                + " LEFT JOIN property_values v ON v.valuelist_id = l.id" + where
+                + " ORDER BY p.element_id, l.id, v.id", params, rs -> {
+            long listId = rs.getLong(3);
+            if (current[0] == null || current[0].id != listId) {
+                if (current[0] != null) {
+                    current[0].put(maps);
+                }
+                current[0] = new ValueList(rs.getLong(1), rs.getString(2), listId, dims.get(listId));
+                byte[] packed = rs.getBytes(4);
+                if (packed != null) {
+                    PackedValues p = PackedValues.fromBytes(packed, null);
+                    current[0].values.addAll(p.getValues());
+                    current[0].dims = p.getDims();
+                    return;
+                }
+            }
+            if (rs.getObject(13) != null) { // no values row for empty lists
+                current[0].values.add(toValue(rs));
+            }
+        });
+        if (current[0] != null) {
+            current[0].put(maps);
+        }
+        logger.debug("read properties of {} elements", maps.size());
+        return maps;
+    }
+
+    private static PropertyValue toValue(ResultSet rs) throws SQLException {
+        PropertyValue v = new PropertyValue();
+        v.setString(rs.getString(5));
+        v.setDouble(rs.getObject(6) != null ? rs.getDouble(6) : null);
+        v.setInt(rs.getObject(7) != null ? rs.getInt(7) : null);
+        v.setLong(rs.getObject(8) != null ? rs.getLong(8) : null);
+        v.setDate(rs.getTimestamp(9));
+        v.setDecimal(rs.getBigDecimal(10));
+        v.setShort(rs.getObject(11) != null ? rs.getShort(11) : null);
+        v.setCdata(rs.getString(12));
+        return v;
+    }
+
+    /**
+     * values of a current value list
+     */
+    private static class ValueList {
+        final long elementId;
+        final String name;
+        final long id;
+        List<Integer> dims;
+        final List<PropertyValue> values = new ArrayList<PropertyValue>();
+
+        ValueList(long elementId, String name, long id, List<Integer> dims) {
+            this.elementId = elementId;
+            this.name = name;
+            this.id = id;
+            this.dims = dims;
+        }
+
+        void put(Map<Long, Map<String, Object>> maps) {
+            Map<String, Object> map = maps.computeIfAbsent(elementId, k -> new HashMap<String, Object>());
+            if (dims != null && !dims.isEmpty()) {
+                List<Object> l = new ArrayList<Object>();
+                Element.setMatrix(dims.get(dims.size() - 1), 0, dims, values.iterator(), l);
+                map.put(name, l);
+            } else {
+                map.put(name, values.isEmpty() ? null : values.get(0).getValue());
+            }
+        }
+    }
+}
@@ -2,8 +2,11 @@ package ch.semafor.gendas.dao.jpa;
 
 import ch.semafor.gendas.model.ElementType;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.lang.Nullable;
 
 
@@ -17,5 +20,8 @@ public interface ElementTypeRepositoryJpa extends JpaRepository<ElementType, Lon
      * @return ElementType obj
      */
     @Nullable
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     ElementType findByName(final String name);
+
+    boolean existsByName(final String name);
 }
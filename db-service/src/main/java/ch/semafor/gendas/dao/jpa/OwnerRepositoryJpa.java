@@ -1,10 +1,21 @@
 package ch.semafor.gendas.dao.jpa;
 
 import ch.semafor.gendas.dao.OwnerRepository;
+import ch.semafor.gendas.exceptions.UsernameNotFoundException;
 import ch.semafor.gendas.model.Owner;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 @Profile("jpa")
 public interface OwnerRepositoryJpa extends JpaRepository<Owner, String>, OwnerRepository {
+
+    /**
+     * owners are looked up on every request, the result is kept in the query cache
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Owner findByUsername(String username) throws UsernameNotFoundException;
 }
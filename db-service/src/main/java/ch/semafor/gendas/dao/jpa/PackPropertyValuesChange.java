@@ -0,0 +1,168 @@
+package ch.semafor.gendas.dao.jpa;
+
+import ch.semafor.gendas.model.PackedValues;
+import ch.semafor.gendas.model.PropertyValue;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * liquibase custom change which switches property types to packed storage
+ * and converts their existing value lists (all revisions) into blobs.
+ * <pre>
+ * &lt;changeSet id="pack-results" author="..."&gt;
+ *   &lt;customChange class="ch.semafor.gendas.dao.jpa.PackPropertyValuesChange"&gt;
+ *     &lt;param name="propertyTypes" value="resultMatrix,resultVector"/&gt;
+ *   &lt;/customChange&gt;
+ * &lt;/changeSet&gt;
+ * </pre>
+ */
+public class PackPropertyValuesChange implements CustomTaskChange {
+    private static final Logger logger = LoggerFactory.getLogger(PackPropertyValuesChange.class);
+
+    private String propertyTypes;
+    private int packedLists = 0;
+
+    public String getPropertyTypes() {
+        return propertyTypes;
+    }
+
+    public void setPropertyTypes(final String propertyTypes) {
+        this.propertyTypes = propertyTypes;
+    }
+
+    @Override
+    public void execute(final Database database) throws CustomChangeException {
+        final Connection conn = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try {
+            for (String name : propertyTypes.split(",")) {
+                pack(conn, name.trim());
+            }
+        } catch (SQLException ex) {
+            throw new CustomChangeException("cannot pack property values of " + propertyTypes, ex);
+        }
+    }
+
+    /**
+     * switch property type to packed storage and pack its value lists
+     *
+     * @param conn jdbc connection
+     * @param name of property type
+     * @return number of packed value lists
+     * @throws SQLException
+     */
+    public int pack(final Connection conn, final String name) throws SQLException {
+        try (PreparedStatement upd = conn.prepareStatement(
+                "UPDATE property_types SET packed = ? WHERE name = ?")) {
+            upd.setBoolean(1, true);
+            upd.setString(2, name);
+            if (upd.executeUpdate() == 0) {
+                logger.warn("property type {} not found", name);
+                return 0;
+            }
+        }
+        final List<Long> ids = new ArrayList<Long>();
+        try (PreparedStatement sel = conn.prepareStatement(
+                "SELECT l.id FROM property_value_list l"
+                        + " JOIN properties p ON l.property_id = p.id"
+                        + " JOIN property_types t ON p.property_type_id = t.id"
+                        + " WHERE t.name = ? AND l.packed_values IS NULL")) {
+            sel.setString(1, name);
+            try (ResultSet rs = sel.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        for (Long id : ids) {
+            packValueList(conn, id);
+        }
+        logger.info("packed {} value lists of property type {}", ids.size(), name);
+        packedLists += ids.size();
+        return ids.size();
+    }
+
+    private void packValueList(final Connection conn, final Long id) throws SQLException {
+        final PackedValues packed = new PackedValues();
+        try (PreparedStatement sel = conn.prepareStatement(
+                "SELECT dims FROM propertyvaluelist_dimensions WHERE propertyvaluelist_id = ?")) {
+            sel.setLong(1, id);
+            try (ResultSet rs = sel.executeQuery()) {
+                final List<Integer> dims = new ArrayList<Integer>();
+                while (rs.next()) {
+                    dims.add(rs.getInt(1));
+                }
+                if (!dims.isEmpty()) {
+                    packed.setDims(dims);
+                }
+            }
+        }
+        try (PreparedStatement sel = conn.prepareStatement(
+                "SELECT svalue, dvalue, ivalue, lvalue, date_value, decimal_value, bool, text"
+                        + " FROM property_values WHERE valuelist_id = ? ORDER BY id")) {
+            sel.setLong(1, id);
+            try (ResultSet rs = sel.executeQuery()) {
+                while (rs.next()) {
+                    final PropertyValue v = new PropertyValue();
+                    v.setString(rs.getString(1));
+                    v.setDouble(rs.getObject(2) != null ? rs.getDouble(2) : null);
+                    v.setInt(rs.getObject(3) != null ? rs.getInt(3) : null);
+                    v.setLong(rs.getObject(4) != null ? rs.getLong(4) : null);
+                    v.setDate(rs.getTimestamp(5));
+                    v.setDecimal(rs.getBigDecimal(6));
+                    v.setShort(rs.getObject(7) != null ? rs.getShort(7) : null);
+                    v.setCdata(rs.getString(8));
+                    packed.getValues().add(v);
+                }
+            }
+        }
+        try (PreparedStatement upd = conn.prepareStatement(
+                "UPDATE property_value_list SET packed_values = ? WHERE id = ?")) {
+            upd.setBytes(1, packed.toBytes());
+            upd.setLong(2, id);
+            upd.executeUpdate();
+        }
+        try (PreparedStatement del = conn.prepareStatement(
+                "DELETE FROM property_values WHERE valuelist_id = ?")) {
+            del.setLong(1, id);
+            del.executeUpdate();
+        }
+        try (PreparedStatement del = conn.prepareStatement(
+                "DELETE FROM propertyvaluelist_dimensions WHERE propertyvaluelist_id = ?")) {
+            del.setLong(1, id);
+            del.executeUpdate();
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "packed " + packedLists + " value lists of " + propertyTypes;
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(final ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(final Database database) {
+        final ValidationErrors errors = new ValidationErrors();
+        errors.checkRequiredField("propertyTypes", propertyTypes);
+        return errors;
+    }
+}
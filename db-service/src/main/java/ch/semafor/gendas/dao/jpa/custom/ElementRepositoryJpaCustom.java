@@ -9,6 +9,7 @@ import org.springframework.data.domain.Pageable;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public interface ElementRepositoryJpaCustom {
 
@@ -26,6 +27,13 @@ public interface ElementRepositoryJpaCustom {
      */
     List<Element> getAllActive();
 
+    /**
+     * get ids of all active (not deleted) elements
+     *
+     * @return list of ids
+     */
+    List<Long> getAllActiveIds();
+
     /**
      * find elements of group
      *
@@ -34,6 +42,15 @@ public interface ElementRepositoryJpaCustom {
      */
     List<Element> findByGroup(final Group group);
 
+    /**
+     * load the current values of the given properties of elements into the
+     * persistence context with a bounded number of queries (see Element.toMap(pnames))
+     *
+     * @param elements list of elements
+     * @param pnames   property names, dotted names for properties of referenced elements
+     */
+    void fetchProperties(final List<Element> elements, final List<String> pnames);
+
     /**
      * find elements of given type and properties
      *
@@ -48,4 +65,24 @@ public interface ElementRepositoryJpaCustom {
     List<Element> findElementsByArgs(final String etype, final Owner owner, final Map<String, Object> args,
                                      final Map<String, Map<String, Object>> childargs, Pageable pageable,
                                      boolean latestRevision, Date changedSince, boolean canDBPage);
+
+    /**
+     * count elements of given type and properties
+     * (same arguments as findElementsByArgs without paging)
+     *
+     * @return number of found elements
+     */
+    long countElementsByArgs(final String etype, final Owner owner, final Map<String, Object> args,
+                             final Map<String, Map<String, Object>> childargs,
+                             boolean latestRevision, Date changedSince);
+
+    /**
+     * stream elements of given type and properties
+     * (same arguments as findElementsByArgs, rows are fetched while the stream is read)
+     *
+     * @return stream of found elements, must be closed
+     */
+    Stream<Element> streamElementsByArgs(final String etype, final Owner owner, final Map<String, Object> args,
+                                         final Map<String, Map<String, Object>> childargs, Pageable pageable,
+                                         boolean latestRevision, Date changedSince);
 }
@@ -1,25 +1,36 @@
 package ch.semafor.gendas.dao.jpa.custom;
 
 import ch.semafor.gendas.model.*;
+import ch.semafor.gendas.search.SearchAccess;
+import ch.semafor.gendas.search.SearchAfter;
 import ch.semafor.gendas.search.SearchIn;
 import ch.semafor.gendas.search.SearchOp;
+import ch.semafor.gendas.service.ElementTypeRegistry;
+import ch.semafor.intens.ws.utils.IntensWsException;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
 import org.hibernate.stat.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @Repository
 public class ElementRepositoryJpaImpl implements ElementRepositoryJpaCustom {
@@ -29,6 +40,22 @@ public class ElementRepositoryJpaImpl implements ElementRepositoryJpaCustom {
     @PersistenceContext
     private EntityManager entityManager;
 
+    // element types without a query if loaded (not available in repository tests)
+    @Autowired
+    private ObjectProvider<ElementTypeRegistry> elementTypes;
+
+    // search arguments as joins of the element query instead of exists subqueries
+    @Value("${app.searchJoins:false}")
+    private boolean searchJoins;
+
+    // rows fetched per round trip when streaming elements
+    @Value("${app.streamFetchSize:500}")
+    private int streamFetchSize;
+
+    // search and sort current values on the current_value_lists projection
+    @Value("${app.searchProjection:false}")
+    private boolean searchProjection;
+
     private CriteriaQuery<Element> createCriteriaQuery(
             CriteriaBuilder cb, Class clazz) {
         return getCriteriaBuilder().createQuery(clazz);
@@ -38,6 +65,14 @@ public class ElementRepositoryJpaImpl implements ElementRepositoryJpaCustom {
         return entityManager.getCriteriaBuilder();
     }
 
+    public void setSearchJoins(boolean searchJoins) {
+        this.searchJoins = searchJoins;
+    }
+
+    public void setSearchProjection(boolean searchProjection) {
+        this.searchProjection = searchProjection;
+    }
+
     public Statistics getStatistics() {
         return ((Session) entityManager.getDelegate()).getSessionFactory().getStatistics();
     }
@@ -55,6 +90,81 @@ public class ElementRepositoryJpaImpl implements ElementRepositoryJpaCustom {
         return q.getResultList();
     }
 
+    @Override
+    public void fetchProperties(final List<Element> elements, final List<String> pnames) {
+        if (elements.isEmpty() || pnames == null || pnames.isEmpty()) {
+            return;
+        }
+        List<String> names = new ArrayList<String>();
+        Map<String, List<String>> childnames = new LinkedHashMap<String, List<String>>();
+        for (String n : pnames) {
+            int s = n.indexOf('.');
+            if (s > 0) {
+                childnames.computeIfAbsent(n.substring(0, s), k -> new ArrayList<String>()).add(n.substring(s + 1));
+            } else {
+                names.add(n);
+            }
+        }
+        entityManager.createQuery("SELECT DISTINCT e FROM Element e LEFT JOIN FETCH e.properties p"
+                        + " LEFT JOIN FETCH p.type WHERE e IN :elements", Element.class)
+                .setParameter("elements", elements)
+                .getResultList();
+        if (!names.isEmpty()) {
+            // current value lists of the selected properties, their values and dims
+            List<Property> props = entityManager.createQuery("SELECT DISTINCT p FROM Property p"
+                            + " LEFT JOIN FETCH p.currentValuelist"
+                            + " WHERE p.element IN :elements AND p.type.name IN :names", Property.class)
+                    .setParameter("elements", elements)
+                    .setParameter("names", names)
+                    .getResultList();
+            if (!props.isEmpty()) {
+                List<PropertyValueList> vlists = entityManager.createQuery("SELECT DISTINCT l FROM PropertyValueList l"
+                                + " LEFT JOIN FETCH l.values"
+                                + " WHERE l.property IN :props AND l.nextRevision = :rev", PropertyValueList.class)
+                        .setParameter("props", props)
+                        .setParameter("rev", TableModification.MaxRevision)
+                        .getResultList();
+                if (!vlists.isEmpty()) {
+                    entityManager.createQuery("SELECT DISTINCT l FROM PropertyValueList l"
+                                    + " LEFT JOIN FETCH l.dims WHERE l IN :vlists", PropertyValueList.class)
+                            .setParameter("vlists", vlists)
+                            .getResultList();
+                }
+            }
+        }
+        if (!childnames.isEmpty()) {
+            // current referenced elements of the dotted names
+            entityManager.createQuery("SELECT DISTINCT e FROM Element e LEFT JOIN FETCH e.references r"
+                            + " LEFT JOIN FETCH r.elementType WHERE e IN :elements", Element.class)
+                    .setParameter("elements", elements)
+                    .getResultList();
+            List<ElementRefs> refs = entityManager.createQuery("SELECT DISTINCT r FROM ElementRefs r"
+                            + " LEFT JOIN FETCH r.currentReflist"
+                            + " WHERE r.parent IN :elements AND r.refname IN :refnames", ElementRefs.class)
+                    .setParameter("elements", elements)
+                    .setParameter("refnames", childnames.keySet())
+                    .getResultList();
+            if (refs.isEmpty()) {
+                return;
+            }
+            List<ElementRefList> reflists = entityManager.createQuery("SELECT DISTINCT l FROM ElementRefList l"
+                            + " LEFT JOIN FETCH l.elementlist"
+                            + " WHERE l.parent IN :refs AND l.nextRevision = :rev", ElementRefList.class)
+                    .setParameter("refs", refs)
+                    .setParameter("rev", TableModification.MaxRevision)
+                    .getResultList();
+            for (Map.Entry<String, List<String>> c : childnames.entrySet()) {
+                List<Element> children = new ArrayList<Element>();
+                for (ElementRefList l : reflists) {
+                    if (c.getKey().equals(l.getParent().getRefName()) && l.getElementList() != null) {
+                        children.addAll(l.getElementList());
+                    }
+                }
+                fetchProperties(children, c.getValue());
+            }
+        }
+    }
+
     public List<Element> getAllActive() {
         CriteriaBuilder cb = getCriteriaBuilder();
         CriteriaQuery<Element> cq = createCriteriaQuery(cb, Element.class);
@@ -65,18 +175,178 @@ public class ElementRepositoryJpaImpl implements ElementRepositoryJpaCustom {
         return entityManager.createQuery(cq).getResultList();
     }
 
-    public List<Element> findElementsByArgs(final String etype, final Owner owner,
-                                            final Map<String, Object> args, final Map<String, Map<String, Object>> childargs,
-                                            Pageable pageable, boolean latestRevision, Date changedSince, boolean canDBPage) {
+    public List<Long> getAllActiveIds() {
         CriteriaBuilder cb = getCriteriaBuilder();
-        CriteriaQuery<Element> cq = createCriteriaQuery(cb, Element.class);
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Element> root = cq.from(Element.class);
+        ListJoin<Element, TableModification> mods = root.join(Element_.modifications);
+        cq.select(root.get(Element_.id)).where(cb.equal(mods.get(TableModification_.nextRevision),
+                TableModification.MaxRevision));
+        return entityManager.createQuery(cq).getResultList();
+    }
+
+    /**
+     * property types are unique on name and unit, the element type selects one of them
+     *
+     * @param etype of elements (all property types with this name if null)
+     * @param name  of property type
+     * @return property types, empty if not found
+     */
+    private List<PropertyType> findPropertyTypes(String etype, String name) {
+        if (etype == null || etype.isEmpty()) {
+            return entityManager.createQuery(
+                            "SELECT p FROM PropertyType p WHERE p.name = :name", PropertyType.class)
+                    .setParameter("name", name)
+                    .getResultList();
+        }
+        ElementTypeRegistry registry = elementTypes != null ? elementTypes.getIfAvailable() : null;
+        ElementType type = registry != null ? registry.find(etype) : null;
+        if (type == null) {
+            List<ElementType> types = entityManager.createQuery(
+                            "SELECT t FROM ElementType t WHERE t.name = :name", ElementType.class)
+                    .setParameter("name", etype)
+                    .setHint(HibernateHints.HINT_CACHEABLE, true)
+                    .getResultList();
+            type = types.isEmpty() ? null : types.get(0);
+        }
+        PropertyType ptype = type != null ? type.getPropertyType(name) : null;
+        return ptype != null ? List.of(ptype) : List.of();
+    }
+
+    /**
+     * value column of property type (one column only so that an index on
+     * valuelist_id and the column can be used)
+     */
+    private Expression<?> sortColumn(CriteriaBuilder cb, Path<PropertyValue> v,
+                                     PropertyType.Type type, boolean ignoreCase) {
+        switch (type) {
+            case LONG:
+                return v.get(PropertyValue_.lvalue);
+            case INTEGER:
+                return v.get(PropertyValue_.ivalue);
+            case REAL:
+                return v.get(PropertyValue_.dvalue);
+            case DATE:
+                return v.get(PropertyValue_.dateValue);
+            case DECIMAL:
+                return v.get(PropertyValue_.decimalValue);
+            case BOOL:
+            case SHORT:
+                return v.get(PropertyValue_.bool);
+            case CDATA:
+                return v.get(PropertyValue_.text);
+            default:
+                return ignoreCase ? cb.lower(v.get(PropertyValue_.svalue)) : v.get(PropertyValue_.svalue);
+        }
+    }
+
+    /**
+     * smallest (ascending) or largest (descending) value of the value list:
+     * one sort key per element even if the property is a vector
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Expression<?> sortValue(CriteriaBuilder cb, CriteriaQuery<?> cq, From<?, PropertyValueList> vlist,
+                                    PropertyType.Type type, boolean ignoreCase, boolean ascending) {
+        Subquery<Comparable> sq = cq.subquery(Comparable.class);
+        Root<PropertyValue> v = sq.from(PropertyValue.class);
+        Expression<Comparable> col = (Expression<Comparable>) sortColumn(cb, v, type, ignoreCase);
+        sq.select(ascending ? cb.least(col) : cb.greatest(col))
+                .where(cb.equal(v.get(PropertyValue_.valuelist), vlist));
+        return sq;
+    }
+
+    /**
+     * element has a current value of property key matching op
+     * (semi-join: one subquery per argument, no row multiplication)
+     */
+    private Predicate existsProperty(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<Element> root,
+                                     String key, SearchOp op, boolean not) {
+        Subquery<Long> sq = cq.subquery(Long.class);
+        if (searchProjection) {
+            Root<CurrentValueList> c = sq.from(CurrentValueList.class);
+            Join<CurrentValueList, PropertyValueList> vlist = c.join(CurrentValueList_.valuelist);
+            ListJoin<PropertyValueList, PropertyValue> v = vlist.join(PropertyValueList_.values);
+            Predicate p = op.getPredicate(cb, v);
+            sq.select(v.get(PropertyValue_.id)).where(
+                    cb.equal(c.get(CurrentValueList_.elementId), root.get(Element_.id)),
+                    cb.equal(c.get(CurrentValueList_.name), key),
+                    not ? p.not() : p);
+            return cb.exists(sq);
+        }
+        Root<Element> e = sq.correlate(root);
+        ListJoin<Element, Property> props = e.join(Element_.properties);
+        Join<Property, PropertyType> ptype = props.join(Property_.type);
+        ListJoin<Property, PropertyValueList> vlist = props.join(Property_.valuelist);
+        ListJoin<PropertyValueList, PropertyValue> v = vlist.join(PropertyValueList_.values);
+        Predicate p = op.getPredicate(cb, v);
+        sq.select(v.get(PropertyValue_.id)).where(
+                cb.equal(ptype.get(PropertyType_.name), key),
+                cb.equal(vlist.get(PropertyValueList_.nextRevision), TableModification.MaxRevision),
+                not ? p.not() : p);
+        return cb.exists(sq);
+    }
+
+    /**
+     * element references a child by refname with a current value of property key matching op
+     */
+    private Predicate existsChildProperty(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<Element> root,
+                                          String refname, String key, SearchOp op, boolean latestRevision) {
+        Subquery<Long> sq = cq.subquery(Long.class);
+        Root<Element> e = sq.correlate(root);
+        ListJoin<Element, ElementRefs> refs = e.join(Element_.references);
+        ListJoin<ElementRefs, ElementRefList> reflist = refs.join(ElementRefs_.reflist);
+        ListJoin<ElementRefList, Element> elmnts = reflist.join(ElementRefList_.elementlist);
+        List<Predicate> predicates = new ArrayList<Predicate>();
+        predicates.add(cb.equal(refs.get(ElementRefs_.refname), refname));
+        ListJoin<PropertyValueList, PropertyValue> v;
+        if (searchProjection) {
+            Root<CurrentValueList> c = sq.from(CurrentValueList.class);
+            v = c.join(CurrentValueList_.valuelist).join(PropertyValueList_.values);
+            predicates.add(cb.equal(c.get(CurrentValueList_.elementId), elmnts.get(Element_.id)));
+            predicates.add(cb.equal(c.get(CurrentValueList_.name), key));
+        } else {
+            ListJoin<Element, Property> props = elmnts.join(Element_.properties);
+            Join<Property, PropertyType> ptype = props.join(Property_.type);
+            ListJoin<Property, PropertyValueList> vlist = props.join(Property_.valuelist);
+            v = vlist.join(PropertyValueList_.values);
+            predicates.add(cb.equal(ptype.get(PropertyType_.name), key));
+            predicates.add(cb.equal(vlist.get(PropertyValueList_.nextRevision), TableModification.MaxRevision));
+        }
+        predicates.add(op.getPredicate(cb, v));
+        if (latestRevision) {
+            predicates.add(cb.equal(reflist.get(ElementRefList_.nextRevision), TableModification.MaxRevision));
+        }
+        sq.select(v.get(PropertyValue_.id)).where(predicates.toArray(new Predicate[]{}));
+        return cb.exists(sq);
+    }
+
+    public long countElementsByArgs(final String etype, final Owner owner,
+                                    final Map<String, Object> args, final Map<String, Map<String, Object>> childargs,
+                                    boolean latestRevision, Date changedSince) {
+        CriteriaBuilder cb = getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
         Root<Element> root = cq.from(Element.class);
         Join<Element, TableModification> mods = root.join(Element_.modifications);
-        Join<Element, ElementType> elemtype = root.join(Element_.elementType);
+        List<Predicate> predicates = searchPredicates(cb, cq, root, mods, etype, owner, args, childargs,
+                latestRevision, changedSince);
+        cq.select(cb.countDistinct(root)).where(predicates.toArray(new Predicate[]{}));
+        return entityManager.createQuery(cq).getSingleResult();
+    }
+
+    /**
+     * restrictions of findElementsByArgs and countElementsByArgs
+     */
+    private List<Predicate> searchPredicates(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<Element> root,
+                                             Join<Element, TableModification> mods,
+                                             final String etype, final Owner owner,
+                                             final Map<String, Object> args,
+                                             final Map<String, Map<String, Object>> childargs,
+                                             boolean latestRevision, Date changedSince) {
         List<Predicate> predicates = new ArrayList<Predicate>();
         predicates.add(cb.equal(mods.get(TableModification_.nextRevision),
                 TableModification.MaxRevision));
         if (etype != null && etype.length() > 0) {
+            Join<Element, ElementType> elemtype = root.join(Element_.elementType);
             predicates.add(cb.equal(elemtype.get(ElementType_.name), etype));
         }
 
@@ -90,8 +360,24 @@ public class ElementRepositoryJpaImpl implements ElementRepositoryJpaCustom {
             predicates.add(cb.greaterThan(mods.<Date>get(TableModification_.timestamp), changedSince));
         }
 
+        if (args != null && args.get(SearchAccess.KEY) instanceof SearchAccess access) {
+            for (PropertyType p : findPropertyTypes(etype, access.getStatus())) {
+                if (p.getType() != PropertyType.Type.STRING) { // status codes are compared with svalue
+                    throw new IllegalArgumentException("status property " + access.getStatus()
+                            + " must be of type string, not " + p.getType());
+                }
+            }
+            predicates.add(access.getPredicate(cb, cq, root));
+        }
+        if (args != null && args.get(SearchAfter.KEY) instanceof SearchAfter after) {
+            predicates.add(after.getPredicate(cb, root));
+        }
+
         if (args != null && args.size() > 0) { // check own properties
             for (String key : args.keySet()) {
+                if (args.get(key) instanceof SearchAccess || args.get(key) instanceof SearchAfter) {
+                    continue;
+                }
                 if (key.equals("id")) {
                 	try {
                 		var ids = ((SearchIn<Long>) args.get(key)).getIDs();
@@ -105,6 +391,10 @@ public class ElementRepositoryJpaImpl implements ElementRepositoryJpaCustom {
                     key = key.replaceFirst("^_not_", "");
                     not = true;
                 }
+                if (!searchJoins) {
+                    predicates.add(existsProperty(cb, cq, root, key, op, not));
+                    continue;
+                }
                 ListJoin<Element, Property> props = root.join(Element_.properties);
                 Join<Property, PropertyType> ptype = props.join(Property_.type);
                 ListJoin<Property, PropertyValueList> vlist = props.join(Property_.valuelist);
@@ -130,6 +420,10 @@ public class ElementRepositoryJpaImpl implements ElementRepositoryJpaCustom {
                     logger.debug("Key {}", key);
                     SearchOp op = (SearchOp) subargs.get(key);
                     logger.debug("Search op {}", op);
+                    if (!searchJoins) {
+                        predicates.add(existsChildProperty(cb, cq, root, type, key, op, latestRevision));
+                        continue;
+                    }
                     ListJoin<Element, ElementRefs> refs = root.join(Element_.references);
                     ListJoin<ElementRefs, ElementRefList> reflist = refs.join(ElementRefs_.reflist);
                     ListJoin<ElementRefList, Element> elmnts = reflist.join(ElementRefList_.elementlist);
@@ -152,9 +446,43 @@ public class ElementRepositoryJpaImpl implements ElementRepositoryJpaCustom {
                 }
             }
         }
+        return predicates;
+    }
+
+    public List<Element> findElementsByArgs(final String etype, final Owner owner,
+                                            final Map<String, Object> args, final Map<String, Map<String, Object>> childargs,
+                                            Pageable pageable, boolean latestRevision, Date changedSince, boolean canDBPage) {
+        return elementsQuery(etype, owner, args, childargs, pageable, latestRevision, changedSince, canDBPage)
+                .getResultList();
+    }
+
+    public Stream<Element> streamElementsByArgs(final String etype, final Owner owner,
+                                                final Map<String, Object> args,
+                                                final Map<String, Map<String, Object>> childargs,
+                                                Pageable pageable, boolean latestRevision, Date changedSince) {
+        boolean canDBPage = pageable != null && pageable.getPageSize() != Integer.MAX_VALUE;
+        return elementsQuery(etype, owner, args, childargs, pageable, latestRevision, changedSince, canDBPage)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<Element> elementsQuery(final String etype, final Owner owner,
+                                              final Map<String, Object> args,
+                                              final Map<String, Map<String, Object>> childargs,
+                                              Pageable pageable, boolean latestRevision, Date changedSince,
+                                              boolean canDBPage) {
+        CriteriaBuilder cb = getCriteriaBuilder();
+        CriteriaQuery<Element> cq = createCriteriaQuery(cb, Element.class);
+        Root<Element> root = cq.from(Element.class);
+        Join<Element, TableModification> mods = root.join(Element_.modifications);
+        List<Predicate> predicates = searchPredicates(cb, cq, root, mods, etype, owner, args, childargs,
+                latestRevision, changedSince);
+        SearchAfter after = args != null && args.get(SearchAfter.KEY) instanceof SearchAfter a ? a : null;
 
         if (pageable != null) {
-            int firstResult = pageable.getPageNumber() * pageable.getPageSize();
+            // a cursor replaces the offset
+            int firstResult = after != null ? 0 : pageable.getPageNumber() * pageable.getPageSize();
             var orders = new ArrayList<Order>();
             for (var s : pageable.getSort()) {
                 switch (s.getProperty()) {
@@ -180,41 +508,70 @@ public class ElementRepositoryJpaImpl implements ElementRepositoryJpaCustom {
                         }
                         break;
                     case "ownername":
-                        Join<Element,Owner> owners = root.join(Element_.owner);
+                        Join<Element,Owner> owners = root.join(Element_.owner, JoinType.LEFT);
                         if (s.getDirection().equals(Sort.Direction.DESC)) {
                             orders.add(cb.desc(owners.get(Owner_.firstName)));
                         } else {
                             orders.add(cb.asc(owners.get(Owner_.firstName)));
                         }
                         break;
+                    case "group":
+                        Join<Element, Group> groups = root.join(Element_.ogroup, JoinType.LEFT);
+                        orders.add(s.isAscending() ? cb.asc(groups.get(Group_.name)) : cb.desc(groups.get(Group_.name)));
+                        break;
+                    case "version":
+                        orders.add(s.isAscending() ? cb.asc(root.get(Element_.version)) : cb.desc(root.get(Element_.version)));
+                        break;
+                    case "changer":
+                    case "changername":
+                        // user of the latest modification (mods is restricted to it)
+                        Join<TableModification, Owner> changers = mods.join(TableModification_.user, JoinType.LEFT);
+                        Path<String> changer = changers.get(s.getProperty().equals("changer") ?
+                                Owner_.username : Owner_.firstName);
+                        orders.add(s.isAscending() ? cb.asc(changer) : cb.desc(changer));
+                        break;
                     case "index":
                     break;
                     default:
-                        ListJoin<Element,Property> props = root.join(Element_.properties);
-                        Join<Property, PropertyType> ptype = props.join(Property_.type);
-                        ListJoin<Property, PropertyValueList> vlist = props.join(Property_.valuelist);
-                        ListJoin<PropertyValueList, PropertyValue> v = vlist.join(PropertyValueList_.values);
-                        predicates.add(cb.equal(ptype.get(PropertyType_.name), s.getProperty()));
-                        predicates.add(cb.equal(vlist.get(PropertyValueList_.nextRevision), TableModification.MaxRevision));
-                        if (s.getDirection().equals(Sort.Direction.DESC)) {
-                            orders.add(cb.desc(v.get(PropertyValue_.dateValue)));
-                            orders.add(cb.desc(v.get(PropertyValue_.decimalValue)));
-                            orders.add(cb.desc(v.get(PropertyValue_.dvalue)));
-                            orders.add(cb.desc(v.get(PropertyValue_.ivalue)));
-                            orders.add(cb.desc(v.get(PropertyValue_.lvalue)));
-                            orders.add(cb.desc(v.get(PropertyValue_.svalue)));
-                            orders.add(cb.desc(v.get(PropertyValue_.text)));
+                        List<PropertyType> ptypes = findPropertyTypes(etype, s.getProperty());
+                        if (ptypes.isEmpty()) {
+                            throw new IntensWsException("Cannot sort by unknown property " + s.getProperty(),
+                                    HttpStatus.BAD_REQUEST);
+                        }
+                        PropertyType ptype = ptypes.get(0);
+                        for (PropertyType p : ptypes) {
+                            if (p.isPacked()) { // packed value lists have no values to sort by
+                                throw new IntensWsException("Cannot sort by packed property " + s.getProperty(),
+                                        HttpStatus.BAD_REQUEST);
+                            }
+                            if (p.getType() != ptype.getType()) {
+                                throw new IntensWsException("Cannot sort by property " + s.getProperty()
+                                        + " of different types without element type", HttpStatus.BAD_REQUEST);
+                            }
+                        }
+                        // left joins: elements without this property are kept
+                        From<?, PropertyValueList> vlist;
+                        if (searchProjection) {
+                            Join<Element, CurrentValueList> c = root.join(CurrentValueList.class, JoinType.LEFT);
+                            c.on(cb.equal(c.get(CurrentValueList_.elementId), root.get(Element_.id)),
+                                    cb.equal(c.get(CurrentValueList_.name), ptype.getName()));
+                            vlist = c.join(CurrentValueList_.valuelist, JoinType.LEFT);
                         } else {
-                            orders.add(cb.asc(v.get(PropertyValue_.dateValue)));
-                            orders.add(cb.asc(v.get(PropertyValue_.decimalValue)));
-                            orders.add(cb.asc(v.get(PropertyValue_.dvalue)));
-                            orders.add(cb.asc(v.get(PropertyValue_.ivalue)));
-                            orders.add(cb.asc(v.get(PropertyValue_.lvalue)));
-                            orders.add(cb.asc(v.get(PropertyValue_.svalue)));
-                            orders.add(cb.asc(v.get(PropertyValue_.text)));
+                            ListJoin<Element, Property> props = root.join(Element_.properties, JoinType.LEFT);
+                            props.on(ptypes.size() == 1 ? cb.equal(props.get(Property_.type), ptype)
+                                    : props.get(Property_.type).in(ptypes));
+                            ListJoin<Property, PropertyValueList> current = props.join(Property_.valuelist, JoinType.LEFT);
+                            current.on(cb.equal(current.get(PropertyValueList_.nextRevision), TableModification.MaxRevision));
+                            vlist = current;
                         }
+                        Expression<?> col = sortValue(cb, cq, vlist, ptype.getType(), s.isIgnoreCase(), s.isAscending());
+                        orders.add(s.isAscending() ? cb.asc(col) : cb.desc(col));
                 }
             }
+            // unique order for stable pages
+            if (pageable.getSort().getOrderFor("id") == null) {
+                orders.add(cb.desc(root.get(Element_.id)));
+            }
             cq.orderBy(orders);
 
             cq.select(root).where(predicates.toArray(new Predicate[]{}));
@@ -224,10 +581,10 @@ public class ElementRepositoryJpaImpl implements ElementRepositoryJpaCustom {
                 q.setFirstResult(firstResult);
                 q.setMaxResults(pageable.getPageSize());
             }
-            return q.getResultList();
+            return q;
         }
 
         cq.select(root).where(predicates.toArray(new Predicate[]{}));
-        return entityManager.createQuery(cq).getResultList();
+        return entityManager.createQuery(cq);
     }
 }
@@ -7,6 +7,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @Profile("mongo")
 public interface ElementRepositoryMongoCustom {
@@ -19,6 +20,8 @@ public interface ElementRepositoryMongoCustom {
 
     Long findVersion(Long id, String collection);
 
+    boolean exists(Long id, String collection);
+
     Map<String, Object> findById(Long id, String type);
 
     Map<String, Object> findById(Long id, List<String> pnames, String type);
@@ -31,4 +34,13 @@ public interface ElementRepositoryMongoCustom {
                                    final Map<String, Object> searchargs,
                                    final Map<String, Map<String, Object>> childargs,
                                    Pageable pageable);
+
+    Stream<Map<String, Object>> stream(final String type, final String owner, final java.util.List<String> pnames,
+                                       final Map<String, Object> searchargs,
+                                       final Map<String, Map<String, Object>> childargs,
+                                       Pageable pageable);
+
+    long count(final String type, final String owner,
+               final Map<String, Object> searchargs,
+               final Map<String, Map<String, Object>> childargs);
 }
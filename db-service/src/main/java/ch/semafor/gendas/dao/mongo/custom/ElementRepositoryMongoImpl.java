@@ -4,11 +4,17 @@ import ch.semafor.gendas.dao.mongo.ModificationRepositoryMongo;
 import ch.semafor.gendas.exceptions.CoreException;
 import ch.semafor.gendas.model.ElementType;
 import ch.semafor.gendas.model.Group;
+import ch.semafor.gendas.model.MapModification;
+import ch.semafor.gendas.search.SearchAccess;
+import ch.semafor.gendas.search.SearchAfter;
 import ch.semafor.gendas.search.SearchEq;
 import ch.semafor.gendas.search.SearchOp;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Streams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
@@ -19,6 +25,7 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 @Profile("mongo")
 @Repository
@@ -32,6 +39,10 @@ public class ElementRepositoryMongoImpl implements ElementRepositoryMongoCustom
     @Autowired
     private ModificationRepositoryMongo modificationDao;
 
+    // documents per lookup of last modifications when streaming
+    @Value("${app.streamFetchSize:500}")
+    private int streamFetchSize = 500;
+
     /**
      * save map
      *
@@ -62,6 +73,10 @@ public class ElementRepositoryMongoImpl implements ElementRepositoryMongoCustom
         }
     }
 
+    public boolean exists(Long id, String collection) {
+        return id != null && mt.exists(new Query(Criteria.where("_id").is(id)), collection);
+    }
+
     public Long findVersion(Long id, String collection) {
         if (id == null)
             return null;
@@ -89,39 +104,87 @@ public class ElementRepositoryMongoImpl implements ElementRepositoryMongoCustom
                                           final Map<String, Map<String, Object>> childargs,
                                           Pageable pageable) {
 
-        Criteria crit = null;
-        if (owner != null && !owner.isEmpty()) {
-            crit = Criteria.where("owner").regex(owner);
+        Query q = query(type, owner, pnames, searchargs, childargs, pageable);
+        Class clzz = Map.class;
+        logger.debug("Query: {}", q);
+        long start = System.currentTimeMillis();
+        List<Map<String, Object>> found = mt.find(q, clzz, type);
+        logger.debug("elapsed time: {}", (System.currentTimeMillis() - start));
+        if (found != null) {
+            logger.debug("found objects {}", found.size());
         }
-        if (searchargs != null) {
-            for (String key : searchargs.keySet()) {
-                SearchOp op = (SearchOp) searchargs.get(key);
-                if (key.equals("id")) {
-                    key = "_id";
-                }
-                if (crit != null) {
-                    crit = crit.and(key);
-                } else {
-                    crit = Criteria.where(key);
+        // resolve last modifications of all found objects at once
+        Map<Long, MapModification> lastMods = Collections.emptyMap();
+        if (wantsModification(pnames)) {
+            List<Long> ids = new ArrayList<Long>();
+            for (Map m : found) {
+                if (m.get("id") != null) {
+                    ids.add((Long) m.get("id"));
                 }
-                crit = op.setCriteria(crit);
             }
+            lastMods = modificationDao.findLastOfElements(ids);
         }
-        if (childargs != null) {
-            for (String key : childargs.keySet()) {
-                Map<String, Object> subargs = childargs.get(key);
-                for (String subkey : subargs.keySet()) {
-                    SearchOp op = (SearchOp) subargs.get(subkey);
-                    if (crit != null) {
-                        crit = crit.and(key + "." + subkey);
-                        logger.debug(" and {}", key + "." + subkey);
-                    } else {
-                        crit = Criteria.where(key + "." + subkey);
-                        logger.debug(" where {}", key + "." + subkey);
-                    }
-                    op.setCriteria(crit);
+        List<Map<String, Object>> res = new ArrayList<Map<String, Object>>();
+        for (Map m : found) {
+            Map<String, Object> r = null;
+            updateMap(m, type, pnames, lastMods);
+            r = new HashMap<String, Object>(m);
+            res.add(r);
+        }
+        if (res != null) {
+            logger.debug("MongoDB return map size {}", res.size());
+        }
+        return res;
+    }
+
+    /**
+     * stream maps of find (documents are read while the stream is consumed)
+     *
+     * @return stream of maps, must be closed
+     */
+    public Stream<Map<String, Object>> stream(final String type, final String owner,
+                                              final List<String> pnames,
+                                              final Map<String, Object> searchargs,
+                                              final Map<String, Map<String, Object>> childargs,
+                                              Pageable pageable) {
+        Query q = query(type, owner, pnames, searchargs, childargs, pageable);
+        Stream<Map> found = mt.stream(q, Map.class, type);
+        if (!wantsModification(pnames)) {
+            return found.map(m -> {
+                updateMap(m, type, pnames);
+                return (Map<String, Object>) m;
+            });
+        }
+        // resolve last modifications of each chunk at once
+        Iterator<List<Map>> chunks = Iterators.partition(found.iterator(), Math.max(streamFetchSize, 1));
+        return Streams.stream(chunks).flatMap(chunk -> {
+            List<Long> ids = new ArrayList<Long>();
+            for (Map m : chunk) {
+                if (m.get("id") != null) {
+                    ids.add((Long) m.get("id"));
                 }
             }
+            Map<Long, MapModification> lastMods = modificationDao.findLastOfElements(ids);
+            return chunk.stream().map(m -> {
+                updateMap(m, type, pnames, lastMods);
+                return (Map<String, Object>) m;
+            });
+        }).onClose(found::close);
+    }
+
+    private Query query(final String type, final String owner,
+                        final List<String> pnames,
+                        final Map<String, Object> searchargs,
+                        final Map<String, Map<String, Object>> childargs,
+                        Pageable pageable) {
+        Criteria crit = criteria(owner, searchargs, childargs);
+        SearchAfter after = searchargs != null && searchargs.get(SearchAfter.KEY) instanceof SearchAfter a ? a : null;
+        if (after != null) {
+            crit = crit != null ? new Criteria().andOperator(crit, after.getCriteria()) : after.getCriteria();
+            if (pageable != null) {
+                // a cursor replaces the offset
+                pageable = PageRequest.of(0, pageable.getPageSize(), pageable.getSort());
+            }
         }
         if (crit != null) {
             logger.debug("MongoDB find type {} crit {}",
@@ -138,7 +201,6 @@ public class ElementRepositoryMongoImpl implements ElementRepositoryMongoCustom
         } else {
             logger.debug("MongoDB find all of type {}", type);
         }
-        Class clzz = Map.class;
         Query q = crit == null ? new Query() : new Query(crit);
 
         if (pnames != null && !pnames.isEmpty()) {
@@ -150,24 +212,64 @@ public class ElementRepositoryMongoImpl implements ElementRepositoryMongoCustom
             q.with(pageable);
             logger.debug("limit {} skip {}", pageable.getPageSize(), pageable.getPageNumber());
         }
-        logger.debug("Query: {}", q);
-        long start = System.currentTimeMillis();
-        List<Map<String, Object>> found = mt.find(q, clzz, type);
-        logger.debug("elapsed time: {}", (System.currentTimeMillis() - start));
-        if (found != null) {
-            logger.debug("found objects {}", found.size());
+        return q;
+    }
+
+    /**
+     * count documents matching the same criteria as find (without paging)
+     *
+     * @return number of documents
+     */
+    public long count(final String type, final String owner,
+                      final Map<String, Object> searchargs,
+                      final Map<String, Map<String, Object>> childargs) {
+        Criteria crit = criteria(owner, searchargs, childargs);
+        return mt.count(crit == null ? new Query() : new Query(crit), type);
+    }
+
+    private Criteria criteria(final String owner, final Map<String, Object> searchargs,
+                              final Map<String, Map<String, Object>> childargs) {
+        Criteria crit = null;
+        if (owner != null && !owner.isEmpty()) {
+            crit = Criteria.where("owner").regex(owner);
         }
-        List<Map<String, Object>> res = new ArrayList<Map<String, Object>>();
-        for (Map m : found) {
-            Map<String, Object> r = null;
-            updateMap(m, type, pnames);
-            r = new HashMap<String, Object>(m);
-            res.add(r);
+        if (searchargs != null) {
+            for (String key : searchargs.keySet()) {
+                if (searchargs.get(key) instanceof SearchAccess || searchargs.get(key) instanceof SearchAfter) {
+                    continue;
+                }
+                SearchOp op = (SearchOp) searchargs.get(key);
+                if (key.equals("id")) {
+                    key = "_id";
+                }
+                if (crit != null) {
+                    crit = crit.and(key);
+                } else {
+                    crit = Criteria.where(key);
+                }
+                crit = op.setCriteria(crit);
+            }
         }
-        if (res != null) {
-            logger.debug("MongoDB return map size {}", res.size());
+        if (childargs != null) {
+            for (String key : childargs.keySet()) {
+                Map<String, Object> subargs = childargs.get(key);
+                for (String subkey : subargs.keySet()) {
+                    SearchOp op = (SearchOp) subargs.get(subkey);
+                    if (crit != null) {
+                        crit = crit.and(key + "." + subkey);
+                        logger.debug(" and {}", key + "." + subkey);
+                    } else {
+                        crit = Criteria.where(key + "." + subkey);
+                        logger.debug(" where {}", key + "." + subkey);
+                    }
+                    op.setCriteria(crit);
+                }
+            }
         }
-        return res;
+        if (searchargs != null && searchargs.get(SearchAccess.KEY) instanceof SearchAccess access) {
+            crit = crit != null ? crit.andOperator(access.getCriteria()) : access.getCriteria();
+        }
+        return crit;
     }
 
     public Map<String, Object> findById(Long id, String type) {
@@ -259,9 +361,25 @@ public class ElementRepositoryMongoImpl implements ElementRepositoryMongoCustom
         mt.remove(query, type);
     }
 
+    private static boolean wantsModification(List<String> pnames) {
+        return pnames == null ||
+                pnames.contains("modcomment") ||
+                pnames.contains("changed") ||
+                pnames.contains("changer") ||
+                pnames.contains("changername");
+    }
+
     private void updateMap(Map<String, Object> map, String type, List<String> pnames) {
-        // add type and last modification properties to map, if wanted
+        updateMap(map, type, pnames, null);
+    }
 
+    /**
+     * add type and last modification properties to map, if wanted
+     *
+     * @param lastMods preloaded last modifications by element id or null to load them
+     */
+    private void updateMap(Map<String, Object> map, String type, List<String> pnames,
+                           Map<Long, MapModification> lastMods) {
         // no id in map
         if (map == null || !map.keySet().contains("id")) {
             return;
@@ -272,22 +390,23 @@ public class ElementRepositoryMongoImpl implements ElementRepositoryMongoCustom
         }
 
         // no last modification properties wanted
-        if (!(pnames == null ||
-              pnames.contains("modcomment") ||
-              pnames.contains("changed") ||
-              pnames.contains("changer") ||
-              pnames.contains("changername"))) {
+        if (!wantsModification(pnames)) {
             return;
         }
 
         // load last modification
-        var id = map.get("id");
-        Pageable pageable = PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id"));
-        var mods = modificationDao.findAllOfElement((Long) id, pageable);
-        if (mods.size() == 0) {
+        var id = (Long) map.get("id");
+        MapModification lastMod;
+        if (lastMods != null) {
+            lastMod = lastMods.get(id);
+        } else {
+            Pageable pageable = PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id"));
+            var mods = modificationDao.findAllOfElement(id, pageable);
+            lastMod = mods.isEmpty() ? null : mods.get(mods.size() - 1);
+        }
+        if (lastMod == null) {
             return;
         }
-        var lastMod = mods.get(mods.size() - 1);
 
         // add wanted last modification properties to map
         /* modification attribute comment */
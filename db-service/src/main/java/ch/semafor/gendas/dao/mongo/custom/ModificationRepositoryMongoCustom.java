@@ -4,12 +4,22 @@ import ch.semafor.gendas.model.MapModification;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Profile("mongo")
 public interface ModificationRepositoryMongoCustom {
 
     List<MapModification> findAllOfElement(Long id, Pageable pageable);
 
+    /**
+     * find latest modification of each element in a single aggregation
+     *
+     * @param ids of elements
+     * @return latest modification by element id
+     */
+    Map<Long, MapModification> findLastOfElements(Collection<Long> ids);
+
     void deleteAllOfElement(Long id);
 }
@@ -4,11 +4,20 @@ import ch.semafor.gendas.model.MapModification;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.replaceRoot;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 import static org.springframework.data.mongodb.core.query.Query.query;
 
@@ -26,6 +35,22 @@ public class ModificationRepositoryMongoImpl implements ModificationRepositoryMo
         return mt.find(query(where("elementRef").is(id)).with(pageable), MapModification.class);
     }
 
+    public Map<Long, MapModification> findLastOfElements(Collection<Long> ids) {
+        Map<Long, MapModification> res = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return res;
+        }
+        Aggregation agg = Aggregation.newAggregation(MapModification.class,
+                match(where("elementRef").in(ids)),
+                sort(Sort.Direction.DESC, "id"),
+                group("elementRef").first(Aggregation.ROOT).as("last"),
+                replaceRoot("last"));
+        for (MapModification mod : mt.aggregate(agg, MapModification.class, MapModification.class)) {
+            res.put(mod.getElementRef(), mod);
+        }
+        return res;
+    }
+
     public void deleteAllOfElement(Long id) {
         mt.remove(query(where("elementRef").is(id)), MapModification.class);
     }
@@ -1,8 +1,9 @@
 package ch.semafor.gendas.events;
 
 
-import ch.semafor.gendas.dao.OwnerRepository;
 import ch.semafor.gendas.model.Element;
+import ch.semafor.gendas.service.ElementRegistryService;
+import ch.semafor.gendas.service.OwnerNameCache;
 import ch.semafor.gendas.service.SequenceGeneratorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
 import org.springframework.data.mongodb.core.mapping.event.AfterConvertEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
 import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
 import org.springframework.stereotype.Component;
 
@@ -22,11 +24,14 @@ public class MapModelListener extends AbstractMongoEventListener<Map> {
     private static final Logger logger = LoggerFactory.getLogger(MapModelListener.class);
 
     @Autowired
-    private OwnerRepository ownerRepository;
+    private OwnerNameCache ownerNames;
 
     @Autowired
     private SequenceGeneratorService sequenceGenerator;
 
+    @Autowired
+    private ElementRegistryService elementRegistry;
+
     @Override
     public void onBeforeConvert(BeforeConvertEvent<Map> event) {
         Map map = event.getSource();
@@ -43,6 +48,14 @@ public class MapModelListener extends AbstractMongoEventListener<Map> {
         map.remove("ownername");
     }
 
+    @Override
+    public void onAfterSave(AfterSaveEvent<Map> event) {
+        // remember collection of element once it is stored
+        if (event.getDocument() != null && event.getDocument().get("_id") instanceof Number id) {
+            elementRegistry.register(id.longValue(), event.getCollectionName());
+        }
+    }
+
     @Override
     public void onAfterConvert(AfterConvertEvent<Map> event) {
         Map map = event.getSource();
@@ -58,8 +71,9 @@ public class MapModelListener extends AbstractMongoEventListener<Map> {
 
         // add ownername if owner is present
         String username = (String) map.get("owner");
-        if (username != null) {
-            map.put("ownername", ownerRepository.findByUsername(username).getFullName());
+        String ownername = ownerNames.fullName(username);
+        if (ownername != null) {
+            map.put("ownername", ownername);
         }
 
     }
@@ -0,0 +1,10 @@
+package ch.semafor.gendas.events;
+
+/**
+ * published by UserService.saveOwner before the owner is saved,
+ * listeners evict what they cached of this owner
+ *
+ * @param username of owner
+ */
+public record OwnerSavedEvent(String username) {
+}
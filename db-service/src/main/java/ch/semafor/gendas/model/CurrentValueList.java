@@ -0,0 +1,74 @@
+/*
+ * Copyright 2010 Semafor Informatik & Energie AG, Basel, Switzerland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+
+ */
+package ch.semafor.gendas.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+
+/**
+ * search projection: current value list of a property of an element.
+ * Written on save when app.searchProjection is true, the history stays in
+ * properties and property_value_list.
+ */
+@Entity
+@Table(name = "current_value_lists",
+        indexes = {@Index(name = "curval_ele_name", columnList = "element_id, name")})
+public class CurrentValueList implements Serializable {
+    private static final long serialVersionUID = 1L;
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cur_val_seq_gen")
+    @SequenceGenerator(name = "cur_val_seq_gen", sequenceName = "CUR_VAL_SEQ", allocationSize = 50)
+    private Long id = null;
+
+    @Column(name = "element_id", nullable = false)
+    private Long elementId;
+
+    // name of property type
+    @Column(nullable = false)
+    private String name;
+
+    // no foreign key: rows of removed value lists are dropped by inner joins
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "valuelist_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private PropertyValueList valuelist;
+
+    public CurrentValueList() {
+    }
+
+    public CurrentValueList(final Long elementId, final String name, final PropertyValueList valuelist) {
+        this.elementId = elementId;
+        this.name = name;
+        this.valuelist = valuelist;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getElementId() {
+        return elementId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public PropertyValueList getValuelist() {
+        return valuelist;
+    }
+}
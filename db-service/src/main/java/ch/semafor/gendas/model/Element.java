@@ -21,14 +21,18 @@ import ch.semafor.gendas.exceptions.CoreException;
 import jakarta.persistence.*;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Function;
 
 @Entity
 @Table(name = "elements")
@@ -42,8 +46,16 @@ public class Element implements Serializable {
     //CascadeType.MERGE, CascadeType.REMOVE}) //, cascade = CascadeType.ALL)
     @OrderBy("id asc")
     private final List<TableModification> modifications = new ArrayList<TableModification>();
+    // last modification only, read when the history is not loaded
+    // (batch loaded for all elements of a listing)
+    @OneToMany(mappedBy = "element")
+    @SQLRestriction("next_revision = " + TableModification.MaxRevision)
+    @BatchSize(size = 50)
+    private final List<TableModification> lastModification = new ArrayList<TableModification>();
     @OneToMany(mappedBy = "parent", cascade = {CascadeType.ALL})
     //CascadeType.MERGE, CascadeType.REMOVE, CascadeType.PERSIST})
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private final List<ElementRefs> references = new ArrayList<ElementRefs>();
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "element_seq_gen")
@@ -57,6 +69,8 @@ public class Element implements Serializable {
     private ElementType elementType;
     @OneToMany(mappedBy = "element", cascade = {CascadeType.ALL})
     //	CascadeType.MERGE, CascadeType.REMOVE, CascadeType.PERSIST})
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Property> properties = new ArrayList<Property>();
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner")
@@ -110,8 +124,9 @@ public class Element implements Serializable {
      */
     private List<Property> getProperties(List<String> pnames) {
         List<Property> pl = new ArrayList<Property>();
+        final Set<String> names = new HashSet<String>(pnames);
         for (Property p : this.properties) {
-            if (pnames.contains(p.getName())) {
+            if (names.contains(p.getName())) {
                 pl.add(p);
             }
         }
@@ -201,6 +216,13 @@ public class Element implements Serializable {
 
     // Get the last modification
     public TableModification getLastModification() throws CoreException {
+        if (!Hibernate.isInitialized(modifications)) {
+            for (TableModification mod : lastModification) {
+                if (mod.getNextRevision() == TableModification.MaxRevision) {
+                    return mod;
+                }
+            }
+        }
         if (modifications.isEmpty()) {
             return null;
         }
@@ -297,6 +319,17 @@ public class Element implements Serializable {
         return null;
     }
 
+    // index of properties by type, first one wins like getProperty
+    private Map<PropertyType, Property> getPropertiesByType() {
+        final Map<PropertyType, Property> m = new HashMap<PropertyType, Property>(this.properties.size() * 2);
+        for (Property p : this.properties) {
+            if (p != null && p.getType() != null) {
+                m.putIfAbsent(p.getType(), p);
+            }
+        }
+        return m;
+    }
+
     // get Property by name
     public Property getProperty(final String name) {
         for (Property p : this.properties) {
@@ -332,6 +365,15 @@ public class Element implements Serializable {
     }
 
     // get ElementRefs by name
+    // index of element refs by name, first one wins like getElementRefs
+    private Map<String, ElementRefs> getElementRefsByName() {
+        final Map<String, ElementRefs> m = new HashMap<String, ElementRefs>();
+        for (ElementRefs r : this.references) {
+            m.putIfAbsent(r.getRefName(), r);
+        }
+        return m;
+    }
+
     public ElementRefs getElementRefs(final String key) {
         for (ElementRefs r : this.references) {
             if (r.getRefName().equals(key)) {
@@ -405,7 +447,7 @@ public class Element implements Serializable {
         if (!(o instanceof Element e)) {
             return false;
         }
-        if (this.elementType != e.elementType) {
+        if (!Objects.equals(this.elementType, e.elementType)) {
             return false;
         }
 		if (this.id != null) {
@@ -500,19 +542,13 @@ public class Element implements Serializable {
     }
 
     /**
-     * convert this element to a map
+     * put id, version, type, last modification, owner and group of this element
      *
-     * @param pnames list of property names to be converted
-     *               all if null (including type/modcomment/changed/changer/changername)
-     *               all if empty (excluding type/modcomment/changed/changer/changername)
-     * @param rev    id of modification (last if null)
-     * @return map containing this elements properties and references
+     * @param map       of element
+     * @param pnames    list of property names (see {@link #toMap(List, Long)})
+     * @param ownerName resolves the full name of the owner
      */
-    public Map<String, Object> toMap(List<String> pnames, Long rev) {
-        Map<String, Object> map = new HashMap<String, Object>();
-        logger.debug("toMap  pnames: {}", pnames);
-        if (rev == null)
-            rev = TableModification.MaxRevision;
+    public void putAttributes(Map<String, Object> map, List<String> pnames, Function<Owner, String> ownerName) {
         if (getId() != null && elementType.getBeanId() != null) {
             map.put(elementType.getBeanId(), getId());
         }
@@ -553,21 +589,51 @@ public class Element implements Serializable {
             /* modification attribute user (full name) */
             if (pnames == null || pnames.contains("changername")) {
                 if (lastMod.getUser() != null) {
-                    map.put("changername", lastMod.getUser().getFullName());
+                    map.put("changername", ownerName.apply(lastMod.getUser()));
                 }
             }
         }
+        boolean all = pnames == null || pnames.isEmpty();
+        if ((all || pnames.contains("owner")) && getOwner() != null) {
+            map.put("owner", getOwner().getUsername());
+        }
+        if ((all || pnames.contains("ownername")) && getOwner() != null) {
+            map.put("ownername", ownerName.apply(getOwner()));
+        }
+        if ((all || pnames.contains("group")) && getGroup() != null) {
+            map.put("group", getGroup().getName());
+        }
+    }
+
+    /**
+     * convert this element to a map
+     *
+     * @param pnames list of property names to be converted
+     *               all if null (including type/modcomment/changed/changer/changername)
+     *               all if empty (excluding type/modcomment/changed/changer/changername)
+     * @param rev    id of modification (last if null)
+     * @return map containing this elements properties and references
+     */
+    public Map<String, Object> toMap(List<String> pnames, Long rev) {
+        return toMap(pnames, rev, Owner::getFullName);
+    }
+
+    /**
+     * convert element to map
+     *
+     * @param pnames    list of property names to be converted (see {@link #toMap(List, Long)})
+     * @param rev       id of modification (last if null)
+     * @param ownerName resolves the full name of the owner
+     * @return map containing this elements properties and references
+     */
+    public Map<String, Object> toMap(List<String> pnames, Long rev, Function<Owner, String> ownerName) {
+        Map<String, Object> map = new HashMap<String, Object>();
+        logger.debug("toMap  pnames: {}", pnames);
+        if (rev == null)
+            rev = TableModification.MaxRevision;
+        putAttributes(map, pnames, ownerName);
 
         if (pnames != null && !pnames.isEmpty()) { // extract selected values only
-            if (pnames.contains("owner") && getOwner() != null) {
-                map.put("owner", getOwner().getUsername());
-            }
-            if (pnames.contains("ownername") && getOwner() != null) {
-                map.put("ownername", getOwner().getFullName());
-            }
-            if (pnames.contains("group") && getGroup() != null) {
-                map.put("group", getGroup().getName());
-            }
             logger.debug("extracted elements {}", getProperties(pnames).size());
             Map<Element, List<String>> elemPropList = getProperties(pnames, rev);
             for (Entry<Element, List<String>> e : elemPropList.entrySet()) {
@@ -609,13 +675,6 @@ public class Element implements Serializable {
                 }
             }
         } else { // extract all values
-            if (getOwner() != null) {
-                map.put("owner", getOwner().getUsername());
-                map.put("ownername", getOwner().getFullName());
-            }
-            if (getGroup() != null) {
-                map.put("group", getGroup().getName());
-            }
             for (Property p : getProperties()) {
                 PropertyValueList pl = p.getValueList(rev);
                 if (pl == null)
@@ -640,7 +699,7 @@ public class Element implements Serializable {
                 List<Map<String, ?>> lm = new ArrayList<Map<String, ?>>();
                 for (Element e : el) {
                     List<String> pnames_2 = new ArrayList<>();  // todo: reuse pnames?
-                    if (e != null) lm.add(e.toMap(pnames_2, rev));
+                    if (e != null) lm.add(e.toMap(pnames_2, rev, ownerName));
                 }
                 map.put(r.getRefName(), lm);
             }
@@ -660,7 +719,7 @@ public class Element implements Serializable {
         return toMap(null, rev);
     }
 
-    private void setMatrix(int n, Integer d, List<Integer> dims,
+    public static void setMatrix(int n, Integer d, List<Integer> dims,
                            Iterator<PropertyValue> valiter, List<Object> l) {
 
         if (d < dims.size() - 1) {
@@ -759,9 +818,10 @@ public class Element implements Serializable {
         setGroup(from.getGroup());
 
         // assign properties
+        final Map<PropertyType, Property> propsByType = getPropertiesByType();
         for (Property propFrom : from.properties) {
             logger.debug("Assign property {}", propFrom.getName());
-            final Property propTo = getProperty(propFrom.getType());
+            final Property propTo = propsByType.get(propFrom.getType());
             if (propTo != null) {
 
                 if (logger.isDebugEnabled() && !propTo.equals(propFrom)) {
@@ -774,14 +834,17 @@ public class Element implements Serializable {
                     propFrom.setElement(this);
                     logger.debug("add new Property {}", propFrom.getName());
                     this.properties.add(propFrom);
+                    propsByType.putIfAbsent(propFrom.getType(), propFrom);
                 }
             }
         }
         // remove properties not in from element:
+        // (hash of a property is its type, equals compares the values)
+        final Set<Property> fromProps = new HashSet<Property>(from.properties);
         Iterator<Property> piter = this.properties.iterator();
         while (piter.hasNext()) {
             Property propTo = piter.next();
-            if (!from.properties.contains(propTo)) {
+            if (!fromProps.contains(propTo)) {
                 propTo.delete();
                 //piter.remove();
             }
@@ -790,23 +853,26 @@ public class Element implements Serializable {
                 from.references);
 
         // assign refs
+        final Map<String, ElementRefs> refsByName = getElementRefsByName();
         for (ElementRefs fromRef : fromRefsList) {
-            ElementRefs toRefs = getElementRefs(fromRef.getRefName());
+            ElementRefs toRefs = refsByName.get(fromRef.getRefName());
             if (toRefs == null) {
                 logger.debug("ElementRefs '{}' not available. Add new one",
                         fromRef.getRefName());
                 toRefs = new ElementRefs(this, fromRef);
+                refsByName.put(fromRef.getRefName(), toRefs);
             }
         }
         for (ElementRefs fromRef : fromRefsList) {
-            ElementRefs toRefs = getElementRefs(fromRef.getRefName());
+            ElementRefs toRefs = refsByName.get(fromRef.getRefName());
             toRefs.assign(fromRef, knownElements, elementRepository);
         }
         // search for refs missing in from
+        final Map<String, ElementRefs> fromRefsByName = from.getElementRefsByName();
         final Iterator<ElementRefs> ri = this.references.iterator();
         while (ri.hasNext()) {
             final ElementRefs r = ri.next();
-            if (from.getElementRefs(r.getRefName()) == null) {
+            if (!fromRefsByName.containsKey(r.getRefName())) {
                 r.assign(null, knownElements, elementRepository);
             }
             //ri.remove();
@@ -9,6 +9,7 @@ import ch.semafor.gendas.exceptions.CoreException;
 import jakarta.persistence.*;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.slf4j.Logger;
@@ -16,8 +17,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 @Entity
 @Table(name = "elementrefs_lists")
@@ -45,6 +48,7 @@ public class ElementRefList implements Serializable {
     //CascadeType.MERGE, CascadeType.REMOVE, CascadeType.PERSIST})
     @JoinTable(name = "elementrefs_elements", joinColumns = @JoinColumn(name = "ref_id"),
             inverseJoinColumns = @JoinColumn(name = "element_id"))
+    @BatchSize(size = 50)
     private List<Element> elementlist = null;
 
     // Constructor
@@ -198,9 +202,11 @@ public class ElementRefList implements Serializable {
 
         final List<Element> toElementsNew = new ArrayList<Element>();
         List<Element> knownElements = new ArrayList<Element>();
+        // first known element of each type
+        final Map<ElementType, Element> knownByType = new HashMap<ElementType, Element>();
         boolean changed = false;
         for (Element fromElement : from.elementlist) {
-            Element toElement = getMatchingElement(knownElements, fromElement);
+            Element toElement = getMatchingElement(knownByType, fromElement);
             if (toElement != null) {
                 logger.debug(
                         "getMatchingElement(): Element {} #{} found isLoaded {}",
@@ -236,6 +242,7 @@ public class ElementRefList implements Serializable {
                     // ToDo PMD: AvoidInstantiatingObjectsInLoops
                     final Element new_el = new Element(fromElement.getElementType());
                     knownElements.add(new_el);
+                    knownByType.putIfAbsent(new_el.getElementType(), new_el);
                     new_el.assign(fromElement, knownElements, elementRepository);
                     fromElement = new_el;
                 }
@@ -259,23 +266,19 @@ public class ElementRefList implements Serializable {
         logger.debug("end of ElementRefs::assign()");
     }
 
-    private Element getMatchingElement(final List<Element> elementlist,
+    /**
+     * only the first known element of the same type is compared
+     *
+     * @param knownByType first known element of each type
+     */
+    private Element getMatchingElement(final Map<ElementType, Element> knownByType,
                                        final Element src_el) {
-        logger.debug("getMatchingElement: {}  Elements in list", elementlist.size());
-        for (Element e : elementlist) {
-            if (e.getElementType().equals(src_el.getElementType())) {
-                 if (src_el.getId() != null) {
-                     if (src_el.getId().equals(e.getId())) {
-                         return e;
-                     }
-                 }
-                 // we cannot decide:
-                 return null;
-
-            } else {
-                logger.debug("getMatchingElement: not of same type");
-            }
+        logger.debug("getMatchingElement: {} types known", knownByType.size());
+        final Element e = knownByType.get(src_el.getElementType());
+        if (e != null && src_el.getId() != null && src_el.getId().equals(e.getId())) {
+            return e;
         }
+        // we cannot decide:
         return null;
     }
 
@@ -21,8 +21,11 @@ import ch.semafor.gendas.exceptions.CoreException;
 import jakarta.persistence.*;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,7 +41,13 @@ public class ElementRefs implements Serializable {
     private static final long serialVersionUID = 1L;
     @OneToMany(mappedBy = "parent", cascade = {CascadeType.ALL})
     //CascadeType.MERGE, CascadeType.REMOVE, CascadeType.PERSIST})
+    @BatchSize(size = 50) // history is initialized for all properties on assign
     private final List<ElementRefList> reflist = new ArrayList<ElementRefList>();
+    // current reference list only, read when the history is not loaded
+    @OneToMany(mappedBy = "parent")
+    @SQLRestriction("next_revision = " + TableModification.MaxRevision)
+    @BatchSize(size = 50)
+    private final List<ElementRefList> currentReflist = new ArrayList<ElementRefList>();
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "elem_ref_seq_gen")
     @SequenceGenerator(name = "elem_ref_seq_gen", sequenceName = "ELEM_REF_SEQ", allocationSize = 50)
@@ -155,6 +164,13 @@ public class ElementRefs implements Serializable {
     }
 
     public ElementRefList getElementRefList(final long rev) {
+        if (rev == TableModification.MaxRevision && !Hibernate.isInitialized(this.reflist)) {
+            for (ElementRefList current : this.currentReflist) {
+                if (current.isInRevision(rev)) {
+                    return current;
+                }
+            }
+        }
         int inx = this.reflist.size() - 1;
         ElementRefList reflist;
         while (inx >= 0) {
@@ -0,0 +1,40 @@
+package ch.semafor.gendas.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * maps the id of an element to the collection (type) it is stored in
+ */
+@Document(collection = "element_registry")
+public class ElementRegistration {
+
+    @Id
+    private Long id;
+
+    private String type;
+
+    public ElementRegistration() {
+    }
+
+    public ElementRegistration(Long id, String type) {
+        this.id = id;
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+}
@@ -17,6 +17,9 @@ package ch.semafor.gendas.model;
 import jakarta.persistence.*;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.BatchSize;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -31,6 +34,8 @@ import java.util.Map;
 @Entity
 @Document(collection = "types")
 @Table(name = "element_types")
+@BatchSize(size = 50)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ElementType implements Serializable {
     @org.springframework.data.annotation.Transient
     public static final String SEQUENCE_NAME = "types";
@@ -39,6 +44,7 @@ public class ElementType implements Serializable {
     @ManyToMany(cascade = {CascadeType.PERSIST}) // , CascadeType.PERSIST})
     @JoinTable(name = "element_type_references")
     @MapKeyJoinColumn // (name="refname",columnDefinition="coldef",updatable=true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     Map<String, ElementType> references = new HashMap<String, ElementType>();
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "elem_type_seq_gen")
@@ -52,11 +58,16 @@ public class ElementType implements Serializable {
             cascade = CascadeType.PERSIST)
 //{CascadeType.DETACH, CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH})
     @JoinTable(name = "element_types_property_types")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<PropertyType> propertyTypes = new ArrayList<PropertyType>();
     @Transient
     private boolean created = false; // break recursion in recursive loop
     @Transient
     private boolean printed = false; // break recursion in recursive loop //
+    // property types by name, rebuilt when the list changes
+    @Transient
+    @org.springframework.data.annotation.Transient
+    private transient volatile Map<String, PropertyType> propertyTypesByName;
 
     // Constructor
     public ElementType() {
@@ -121,16 +132,20 @@ public class ElementType implements Serializable {
             return;
         }
         propertyTypes.add(propType);
+        propertyTypesByName = null;
     }
 
     // get PropertyType by Name
     public PropertyType getPropertyType(final String type) {
-        for (PropertyType p : propertyTypes) {
-            if (p.getName().equals(type)) {
-                return p;
+        Map<String, PropertyType> m = propertyTypesByName;
+        if (m == null || m.size() != propertyTypes.size()) {
+            m = new HashMap<String, PropertyType>(propertyTypes.size() * 2);
+            for (PropertyType p : propertyTypes) {
+                m.putIfAbsent(p.getName(), p);
             }
+            propertyTypesByName = m;
         }
-        return null;
+        return m.get(type);
     }
 
     // get list of PropertyTypes
@@ -229,6 +244,7 @@ public class ElementType implements Serializable {
         beanVersionId = null;
         references = null;
         propertyTypes = null;
+        propertyTypesByName = null;
     }
 
     /**
@@ -3,6 +3,8 @@ package ch.semafor.gendas.model;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.util.HashMap;
@@ -14,6 +16,7 @@ import java.util.Objects;
 @Entity
 //@Document(collection="groups")
 @Table(name = "groups")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Group implements Serializable {
     private static final long serialVersionUID = 1L;
 
@@ -3,6 +3,9 @@ package ch.semafor.gendas.model;
 import jakarta.persistence.*;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.HashSet;
@@ -10,7 +13,9 @@ import java.util.Set;
 
 @Entity
 @Table(name = "owners")
+@BatchSize(size = 50)
 @Document("owners")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Owner implements java.io.Serializable {
     private static final long serialVersionUID = 1L;
 
@@ -33,11 +38,13 @@ public class Owner implements java.io.Serializable {
     @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
     @JoinTable(name = "owners_roles", joinColumns = {@JoinColumn(name = "owner_id")}, inverseJoinColumns = @JoinColumn(name = "role_id"))
     // @DBRef
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Role> roles = new HashSet<Role>();
 
     @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
     @JoinTable(name = "owners_groups", joinColumns = {@JoinColumn(name = "owner_id")}, inverseJoinColumns = @JoinColumn(name = "group_id"))
     // @DBRef
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Group> groups = new HashSet<Group>();
     @ManyToOne(cascade = CascadeType.MERGE)
     private Group activeGroup;
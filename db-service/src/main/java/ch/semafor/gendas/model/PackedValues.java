@@ -0,0 +1,168 @@
+/*
+ * Copyright 2010 Semafor Informatik & Energie AG, Basel, Switzerland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+
+ */
+package ch.semafor.gendas.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * values and dimensions of a packed PropertyValueList.
+ * All values are stored as one compressed blob instead of one row per value.
+ */
+public class PackedValues implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int FORMAT = 1;
+
+    private transient List<Integer> dims = null;
+    private transient List<PropertyValue> values = new ArrayList<PropertyValue>();
+
+    public PackedValues() {
+        super();
+    }
+
+    public List<Integer> getDims() {
+        return dims;
+    }
+
+    public void setDims(final List<Integer> dims) {
+        this.dims = dims;
+    }
+
+    public List<PropertyValue> getValues() {
+        return values;
+    }
+
+    public void setValues(final List<PropertyValue> values) {
+        this.values = values;
+    }
+
+    /**
+     * encode dims and values
+     *
+     * @return compressed bytes
+     */
+    public byte[] toBytes() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeByte(FORMAT);
+            if (dims == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(dims.size());
+                for (Integer d : dims) {
+                    out.writeInt(d);
+                }
+            }
+            out.writeInt(values.size());
+            for (PropertyValue v : values) {
+                (v != null ? v : new PropertyValue()).writeTo(out);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * decode bytes created by {@link #toBytes()}
+     *
+     * @param bytes compressed bytes
+     * @param vlist value list of the decoded values
+     * @return decoded values
+     */
+    public static PackedValues fromBytes(final byte[] bytes, final PropertyValueList vlist) {
+        final PackedValues packed = new PackedValues();
+        packed.read(bytes, vlist);
+        return packed;
+    }
+
+    private void read(final byte[] bytes, final PropertyValueList vlist) {
+        try (DataInputStream in = new DataInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+            final int format = in.readUnsignedByte();
+            if (format != FORMAT) {
+                throw new IOException("unknown packed values format " + format);
+            }
+            final int ndims = in.readInt();
+            if (ndims >= 0) {
+                this.dims = new ArrayList<Integer>(ndims);
+                for (int i = 0; i < ndims; i++) {
+                    this.dims.add(in.readInt());
+                }
+            }
+            final int n = in.readInt();
+            this.values = new ArrayList<PropertyValue>(n);
+            for (int i = 0; i < n; i++) {
+                this.values.add(PropertyValue.readFrom(vlist, in));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        final byte[] bytes = toBytes();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        read(bytes, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PackedValues p)) {
+            return false;
+        }
+        if (dims == null ? p.dims != null : !dims.equals(p.dims)) {
+            return false;
+        }
+        return values.equals(p.values);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + (dims != null ? dims.hashCode() : 0);
+        result = prime * result + values.hashCode();
+        return result;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2010 Semafor Informatik & Energie AG, Basel, Switzerland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+
+ */
+package ch.semafor.gendas.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * maps packed values to the blob column of property_value_list
+ */
+@Converter
+public class PackedValuesConverter implements AttributeConverter<PackedValues, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(final PackedValues packed) {
+        return packed != null ? packed.toBytes() : null;
+    }
+
+    @Override
+    public PackedValues convertToEntityAttribute(final byte[] bytes) {
+        return bytes != null ? PackedValues.fromBytes(bytes, null) : null;
+    }
+}
@@ -20,6 +20,11 @@ import ch.semafor.gendas.exceptions.CoreException;
 import jakarta.persistence.*;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.SQLRestriction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,12 +38,19 @@ import java.util.List;
 
 @Entity
 @Table(name = "properties")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Property implements Serializable {
     private static final Logger logger = LoggerFactory.getLogger(Property.class);
     private static final long serialVersionUID = 1L;
     @OneToMany(mappedBy = "property", cascade = {CascadeType.ALL})
     //	CascadeType.MERGE, CascadeType.REMOVE, CascadeType.PERSIST})
+    @BatchSize(size = 50) // history is initialized for all properties on assign
     private final List<PropertyValueList> valuelist = new ArrayList<PropertyValueList>();
+    // current value list only, read when the history is not loaded
+    @OneToMany(mappedBy = "property")
+    @SQLRestriction("next_revision = " + TableModification.MaxRevision)
+    @BatchSize(size = 50)
+    private final List<PropertyValueList> currentValuelist = new ArrayList<PropertyValueList>();
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prop_seq_gen")
     @SequenceGenerator(name = "prop_seq_gen", sequenceName = "PROP_SEQ", allocationSize = 50)
@@ -168,6 +180,14 @@ public class Property implements Serializable {
     }
 
     public PropertyValueList getValueList(final Long revision) {
+        if (revision != null && revision == TableModification.MaxRevision
+                && !Hibernate.isInitialized(this.valuelist)) {
+            for (PropertyValueList vlist : this.currentValuelist) {
+                if (vlist.isInRevision(revision)) {
+                    return vlist;
+                }
+            }
+        }
         int inx = this.valuelist.size() - 1;
         PropertyValueList vlist;
         while (inx >= 0) {
@@ -180,6 +200,21 @@ public class Property implements Serializable {
         return null;
     }
 
+    /**
+     * @return current value list, read from the history only if it is loaded
+     */
+    public PropertyValueList getCurrentValueList() {
+        if (Hibernate.isInitialized(this.valuelist)) {
+            return getValueList(TableModification.MaxRevision);
+        }
+        for (PropertyValueList vlist : this.currentValuelist) {
+            if (vlist.isLastRevision()) {
+                return vlist;
+            }
+        }
+        return null;
+    }
+
     private PropertyValueList getLastValueList() {
         for (PropertyValueList lst : this.valuelist) {
             if (lst.isLastRevision()) {
@@ -412,7 +447,8 @@ public class Property implements Serializable {
             throw new CoreException(
                     "Properties without a type not possible in assign()");
         }
-        if (type != from.type) {
+        // the same type may be a different instance if loaded in another session
+        if (type != from.type && (type.getId() == null || !type.getId().equals(from.type.getId()))) {
             throw new CoreException(
                     "A change of PropertyType is not allowed in assign()");
         }
@@ -17,6 +17,9 @@
 package ch.semafor.gendas.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
@@ -29,6 +32,7 @@ import java.util.Map;
 @Table(name = "property_types",
         uniqueConstraints =
         @UniqueConstraint(columnNames = {"name", "unit"}))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class PropertyType implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -42,6 +46,14 @@ public class PropertyType implements Serializable {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Type type;
+    /**
+     * store values of this type as a single blob per value list
+     * (intended for large numeric vectors and matrices which are
+     * neither searched nor sorted)
+     */
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean packed = false;
 
     public PropertyType() {
         super();
@@ -96,6 +108,14 @@ public class PropertyType implements Serializable {
         return unit;
     }
 
+    public boolean isPacked() {
+        return packed;
+    }
+
+    public void setPacked(final boolean packed) {
+        this.packed = packed;
+    }
+
     public void setUnit(final String unit) {
         this.unit = unit;
     }
@@ -106,6 +126,9 @@ public class PropertyType implements Serializable {
         sb.append("serialVersionUID", serialVersionUID);
         sb.append("name", this.name);
         sb.append("type", this.type);
+        if (this.packed) {
+            sb.append("packed", this.packed);
+        }
         return sb.toString();
     }
 
@@ -25,8 +25,12 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
@@ -494,4 +498,97 @@ public class PropertyValue implements Serializable {
         return null;
     }
 
+    /**
+     * write all non null columns of this value (used by packed value lists)
+     *
+     * @param out destination
+     * @throws IOException
+     */
+    void writeTo(final DataOutput out) throws IOException {
+        int mask = 0;
+        mask |= svalue != null ? 1 : 0;
+        mask |= dvalue != null ? 2 : 0;
+        mask |= ivalue != null ? 4 : 0;
+        mask |= lvalue != null ? 8 : 0;
+        mask |= dateValue != null ? 16 : 0;
+        mask |= decimalValue != null ? 32 : 0;
+        mask |= bool != null ? 64 : 0;
+        mask |= text != null ? 128 : 0;
+        out.writeByte(mask);
+        if (svalue != null) {
+            writeString(out, svalue);
+        }
+        if (dvalue != null) {
+            out.writeDouble(dvalue);
+        }
+        if (ivalue != null) {
+            out.writeInt(ivalue);
+        }
+        if (lvalue != null) {
+            out.writeLong(lvalue);
+        }
+        if (dateValue != null) {
+            out.writeLong(dateValue.getTime());
+        }
+        if (decimalValue != null) {
+            writeString(out, decimalValue.toString());
+        }
+        if (bool != null) {
+            out.writeShort(bool);
+        }
+        if (text != null) {
+            writeString(out, text);
+        }
+    }
+
+    /**
+     * read a value written by {@link #writeTo(DataOutput)}
+     *
+     * @param vlist value list of the new value
+     * @param in    source
+     * @return new value
+     * @throws IOException
+     */
+    static PropertyValue readFrom(final PropertyValueList vlist, final DataInput in) throws IOException {
+        final PropertyValue v = new PropertyValue(vlist);
+        final int mask = in.readUnsignedByte();
+        if ((mask & 1) != 0) {
+            v.svalue = readString(in);
+        }
+        if ((mask & 2) != 0) {
+            v.dvalue = in.readDouble();
+        }
+        if ((mask & 4) != 0) {
+            v.ivalue = in.readInt();
+        }
+        if ((mask & 8) != 0) {
+            v.lvalue = in.readLong();
+        }
+        if ((mask & 16) != 0) {
+            v.dateValue = new Date(in.readLong());
+        }
+        if ((mask & 32) != 0) {
+            v.decimalValue = new BigDecimal(readString(in));
+        }
+        if ((mask & 64) != 0) {
+            v.bool = in.readShort();
+        }
+        if ((mask & 128) != 0) {
+            v.text = readString(in);
+        }
+        return v;
+    }
+
+    private static void writeString(final DataOutput out, final String s) throws IOException {
+        final byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(final DataInput in) throws IOException {
+        final byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
 }
@@ -20,6 +20,9 @@ import ch.semafor.gendas.exceptions.CoreException;
 import jakarta.persistence.*;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +44,7 @@ public class PropertyValueList implements Serializable {
     @OneToMany(mappedBy = "valuelist", cascade = {CascadeType.ALL})
     //CascadeType.MERGE, CascadeType.REMOVE, CascadeType.PERSIST})
     @OrderBy("id asc")
+    @BatchSize(size = 50)
     private List<PropertyValue> values = new ArrayList<PropertyValue>();
 
     @ElementCollection
@@ -48,8 +52,18 @@ public class PropertyValueList implements Serializable {
             name = "propertyvaluelist_dimensions",
             joinColumns = @JoinColumn(name = "propertyvaluelist_id")
     )
+    @BatchSize(size = 50)
     private List<Integer> dims = null;
 
+    /**
+     * values and dims of packed lists (see PropertyType.isPacked()),
+     * null if the values are stored row by row
+     */
+    @JdbcTypeCode(SqlTypes.VARBINARY) // bytea on postgresql, not a large object
+    @Column(name = "packed_values")
+    @Convert(converter = PackedValuesConverter.class)
+    private PackedValues packedValues = null;
+
     @ManyToOne
     @JoinColumn(name = "property_id")
     private Property property = null;
@@ -74,6 +88,7 @@ public class PropertyValueList implements Serializable {
         this.property = pr;
         this.revision = pr.getNewRevision();
         this.nextRevision = TableModification.MaxRevision;
+        initPacking();
         this.property.addValueList(this);
     }
 
@@ -83,18 +98,49 @@ public class PropertyValueList implements Serializable {
         this.property = p;
         this.revision = this.property.getNewRevision();
         this.nextRevision = TableModification.MaxRevision;
+        initPacking();
         copyValues(vlist);
+        if (vlist.getDims() != null) {
+            copyDims(vlist.getDims());
+        }
         this.property.addValueList(this);
         logger.debug("this rev {} vlist next {}", this.revision, vlist.getNextRevision());
     }
 
+    private void initPacking() {
+        if (this.property.getType() != null && this.property.getType().isPacked()) {
+            this.packedValues = new PackedValues();
+        }
+    }
+
     private void copyValues(final PropertyValueList vlist) {
-        this.values = new ArrayList<PropertyValue>();
-        for (PropertyValue v : vlist.values) {
-            this.values.add(new PropertyValue(this, v));
+        final List<PropertyValue> copy = new ArrayList<PropertyValue>();
+        for (PropertyValue v : vlist.getValues()) {
+            copy.add(new PropertyValue(this, v));
+        }
+        if (isPacked()) {
+            this.packedValues.setValues(copy);
+        } else {
+            this.values = copy;
         }
     }
 
+    private void copyDims(final List<Integer> dims) {
+        final List<Integer> copy = new ArrayList<Integer>(dims);
+        if (isPacked()) {
+            this.packedValues.setDims(copy);
+        } else {
+            this.dims = copy;
+        }
+    }
+
+    /**
+     * @return true if values and dims are stored in a single blob
+     */
+    public boolean isPacked() {
+        return this.packedValues != null;
+    }
+
     public boolean isTransient() {
         return this.id == null;
     }
@@ -142,14 +188,14 @@ public class PropertyValueList implements Serializable {
     }
 
     public boolean isEmpty() {
-        return this.values.isEmpty();
+        return getValues().isEmpty();
     }
 
     public boolean isValid() {
-        if (this.values.isEmpty()) {
+        if (getValues().isEmpty()) {
             return false;
         }
-        for (PropertyValue v : values) {
+        for (PropertyValue v : getValues()) {
             if (v.isValid()) {
                 return true;
             }
@@ -163,22 +209,23 @@ public class PropertyValueList implements Serializable {
 
     // getter of Values
     public Object getValue(int index) {
+        final List<PropertyValue> values = getValues();
         final PropertyValue v = values.size() > index ? values.get(index) : null;
         return v != null ? v.getValue() : null;
     }
 
     public Date getDate(int index) {
-        final PropertyValue v = values.get(index);
+        final PropertyValue v = getValues().get(index);
         return v != null ? v.getDate() : null;
     }
 
     public GregorianCalendar getGregorianDate(final int index) {
-        final PropertyValue v = values.get(index);
+        final PropertyValue v = getValues().get(index);
         return v != null ? v.getGregorianDate() : null;
     }
 
     public List<Integer> getDims() {
-        return dims;
+        return isPacked() ? this.packedValues.getDims() : dims;
     }
 
     /**
@@ -187,15 +234,13 @@ public class PropertyValueList implements Serializable {
      * @param dims
      */
     public void setDims(final List<Integer> dims) {
-        if (this.dims == null || dims.size() != this.dims.size()) {
-            this.dims = new ArrayList<Integer>();
-            for (int i = 0; i < dims.size(); i++) {
-                this.dims.add(dims.get(i));
-            }
+        final List<Integer> cur = getDims();
+        if (cur == null || dims.size() != cur.size()) {
+            copyDims(dims);
             return;
         }
         for (int i = 0; i < dims.size(); i++) {
-            this.dims.set(i, dims.get(i));
+            cur.set(i, dims.get(i));
         }
     }
 
@@ -206,10 +251,10 @@ public class PropertyValueList implements Serializable {
         boolean valueChanged = false;
 
         if (isPersistent()) {
-            if (vlist.values.size() <= index) {
+            if (vlist.getValues().size() <= index) {
                 valueChanged = true;
             } else {
-                final PropertyValue val = values.get(index);
+                final PropertyValue val = getValues().get(index);
                 if (val == null) {
                     valueChanged = true;
                 } else {
@@ -223,11 +268,12 @@ public class PropertyValueList implements Serializable {
             }
             vlist = new PropertyValueList(this, this.property);
         }
-        if (vlist.values.size() < index + 1) {
+        final List<PropertyValue> values = vlist.getValues();
+        if (values.size() < index + 1) {
             final PropertyValue new_value = new PropertyValue(vlist, value);
-            vlist.values.add(index, new_value);
+            values.add(index, new_value);
         } else {
-            final PropertyValue cur_value = vlist.values.get(index);
+            final PropertyValue cur_value = values.get(index);
             if (cur_value == null) {
                 throw new CoreException("FATAL: Expected Value not available");
             }
@@ -282,12 +328,12 @@ public class PropertyValueList implements Serializable {
     public String toString() {
         ToStringBuilder sb = new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE);
         sb.append("id", this.id);
-        if (this.dims != null) {
-            sb.append("dims", this.dims.toString());
+        if (getDims() != null) {
+            sb.append("dims", getDims().toString());
         }
         sb.append("revision", revision + " -> " + nextRevision);
-        sb.append("size", this.values.size());
-        for (PropertyValue v : values) {
+        sb.append("size", getValues().size());
+        for (PropertyValue v : getValues()) {
             sb.append(v.toString());
         }
         return sb.toString();
@@ -301,13 +347,13 @@ public class PropertyValueList implements Serializable {
         ToStringBuilder sb = new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE);
         sb.append("id", this.id);
         sb.append("revision", revision + "-" + nextRevision);
-        sb.append("size", this.values.size());
+        sb.append("size", getValues().size());
         indent(ind);
         System.out.println(sb);
-        if (this.values.size() > 0) {
+        if (getValues().size() > 0) {
             indent(ind + 1);
             System.out.print("(");
-            for (PropertyValue v : this.values) {
+            for (PropertyValue v : getValues()) {
                 System.out.print(" ");
                 System.out.print(v.toString());
             }
@@ -327,15 +373,15 @@ public class PropertyValueList implements Serializable {
             // logger.debug("different class");
             return false;
         }
-        if (this.values.size() != vlist.values.size()) {
+        if (getValues().size() != vlist.getValues().size()) {
             return false;
         }
-        if (this.values.size() == 0) {
+        if (getValues().size() == 0) {
             return true;
         }
 
-        Iterator<PropertyValue> v1 = this.values.iterator();
-        Iterator<PropertyValue> v2 = vlist.values.iterator();
+        Iterator<PropertyValue> v1 = getValues().iterator();
+        Iterator<PropertyValue> v2 = vlist.getValues().iterator();
         while (v1.hasNext()) {
             final PropertyValue pv1 = v1.next();
             final PropertyValue pv2 = v2.next();
@@ -366,7 +412,7 @@ public class PropertyValueList implements Serializable {
         final int prime = 31;
         int result = 1;
         result = prime * result + (property != null ? property.hashCode() : 0);
-        result = prime * result + (values != null ? values.hashCode() : 0);
+        result = prime * result + (getValues() != null ? getValues().hashCode() : 0);
         return result;
     }
 
@@ -383,7 +429,7 @@ public class PropertyValueList implements Serializable {
             throw new CoreException("a source-valuelist must have values");
         }
 
-        if (src_vlist.values.size() != dest_vlist.values.size()) {
+        if (src_vlist.getValues().size() != dest_vlist.getValues().size()) {
             // The values are modified. We need to create a
             // new container
             if (dest_vlist.isTransient()) {
@@ -395,24 +441,21 @@ public class PropertyValueList implements Serializable {
             }
             dest_vlist.copyValues(src_vlist);
         } else {
-            for (int i = 0; i < src_vlist.values.size(); i++) {
+            for (int i = 0; i < src_vlist.getValues().size(); i++) {
                 // if some value is modified, eventually a new
                 // ValueList will be created and the existing gets 'historic'.
-                dest_vlist = dest_vlist.setValue(i, src_vlist.values.get(i));
+                dest_vlist = dest_vlist.setValue(i, src_vlist.getValues().get(i));
             }
             if (dest_vlist != this) {
                 logger.debug("--> values updated in valuelist");
             }
         }
 
-        if (src_vlist.dims != null) {
-            dest_vlist.dims = new ArrayList<Integer>();
-            for (Integer i : src_vlist.dims) {
-                dest_vlist.dims.add(i);
-            }
+        if (src_vlist.getDims() != null) {
+            dest_vlist.copyDims(src_vlist.getDims());
         }
 
-        if (dest_vlist.values.size() == 0) {
+        if (dest_vlist.getValues().size() == 0) {
             logger.debug("--> error: a valuelist must have values: Element: " + getProperty().getElement().toString());
             throw new CoreException("a valuelist must have values");
         }
@@ -420,7 +463,7 @@ public class PropertyValueList implements Serializable {
     }
 
     public List<PropertyValue> getValues() {
-        return this.values;
+        return isPacked() ? this.packedValues.getValues() : this.values;
     }
 
 }
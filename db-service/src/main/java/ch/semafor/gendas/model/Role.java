@@ -3,6 +3,8 @@ package ch.semafor.gendas.model;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -15,6 +17,7 @@ import java.util.Objects;
  */
 @Entity
 @Table(name = "roles")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Role implements java.io.Serializable {
     private static final long serialVersionUID = 1L;
 
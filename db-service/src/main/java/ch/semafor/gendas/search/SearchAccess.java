@@ -0,0 +1,151 @@
+package ch.semafor.gendas.search;
+
+import ch.semafor.gendas.model.*;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * visibility rule of elements applied by the database:
+ * an element is visible if the user is its owner, if it has no status
+ * or if its status is one of the visible codes of members of its group
+ * respectively of the visible codes of others.
+ * Passed as search argument with key {@link #KEY}.
+ * The status property must be a string, codes are compared ignoring case.
+ */
+public class SearchAccess {
+    public static final String KEY = "_access";
+
+    private final String user;
+    private final Set<String> groups;
+    private final String status;
+    private final Set<String> groupCodes;
+    private final Set<String> otherCodes;
+
+    /**
+     * @param user       username of the current user
+     * @param groups     names of the groups the user is member of
+     * @param status     name of the status property (eg. approval)
+     * @param groupCodes visible status codes of elements in a group of the user
+     * @param otherCodes visible status codes of elements in other groups
+     */
+    public SearchAccess(String user, Collection<String> groups, String status,
+                        Collection<String> groupCodes, Collection<String> otherCodes) {
+        this.user = user;
+        this.groups = new TreeSet<>(groups);
+        this.status = status;
+        this.groupCodes = new TreeSet<>(groupCodes);
+        this.otherCodes = new TreeSet<>(otherCodes);
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public Set<String> getGroups() {
+        return groups;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Set<String> getGroupCodes() {
+        return groupCodes;
+    }
+
+    public Set<String> getOtherCodes() {
+        return otherCodes;
+    }
+
+    // used by Mongo
+    public Criteria getCriteria() {
+        List<Criteria> any = new ArrayList<>();
+        any.add(where("owner").is(user));
+        any.add(where(status).is(null)); // missing or null
+        if (!groups.isEmpty() && !groupCodes.isEmpty()) {
+            any.add(new Criteria().andOperator(where("group").in(groups), where(status).in(patterns(groupCodes))));
+        }
+        if (!otherCodes.isEmpty()) {
+            any.add(new Criteria().andOperator(where("group").nin(groups), where(status).in(patterns(otherCodes))));
+        }
+        return new Criteria().orOperator(any);
+    }
+
+    private static List<Pattern> patterns(Set<String> codes) {
+        return codes.stream()
+                .map(c -> Pattern.compile("^" + Pattern.quote(c) + "$", Pattern.CASE_INSENSITIVE))
+                .collect(Collectors.toList());
+    }
+
+    // used by JPA
+    public Predicate getPredicate(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<Element> root) {
+        Join<Element, Owner> owner = root.join(Element_.owner, JoinType.LEFT);
+        Join<Element, Group> group = root.join(Element_.ogroup, JoinType.LEFT);
+        List<Predicate> any = new ArrayList<>();
+        any.add(cb.equal(owner.get(Owner_.username), user));
+        any.add(cb.not(cb.exists(statusQuery(cb, cq, root, null))));
+        if (!groups.isEmpty() && !groupCodes.isEmpty()) {
+            any.add(cb.and(group.get(Group_.name).in(groups),
+                    cb.exists(statusQuery(cb, cq, root, groupCodes))));
+        }
+        if (!otherCodes.isEmpty()) {
+            Predicate other = groups.isEmpty() ? cb.conjunction()
+                    : cb.or(cb.isNull(group.get(Group_.name)), cb.not(group.get(Group_.name).in(groups)));
+            any.add(cb.and(other, cb.exists(statusQuery(cb, cq, root, otherCodes))));
+        }
+        return cb.or(any.toArray(new Predicate[]{}));
+    }
+
+    /**
+     * current status value of element: any value if codes is null
+     */
+    private Subquery<Long> statusQuery(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<Element> root,
+                                       Set<String> codes) {
+        Subquery<Long> sq = cq.subquery(Long.class);
+        Root<PropertyValue> v = sq.from(PropertyValue.class);
+        Join<PropertyValue, PropertyValueList> vlist = v.join(PropertyValue_.valuelist);
+        Join<PropertyValueList, Property> prop = vlist.join(PropertyValueList_.property);
+        Join<Property, PropertyType> ptype = prop.join(Property_.type);
+        sq.select(v.get(PropertyValue_.id)).where(
+                cb.equal(prop.get(Property_.element), root),
+                cb.equal(ptype.get(PropertyType_.name), status),
+                cb.equal(vlist.get(PropertyValueList_.nextRevision), TableModification.MaxRevision),
+                codes == null ? cb.isNotNull(v.get(PropertyValue_.svalue))
+                        : cb.lower(v.get(PropertyValue_.svalue)).in(
+                                codes.stream().map(String::toLowerCase).collect(Collectors.toSet())));
+        return sq;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(user, groups, status, groupCodes, otherCodes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof SearchAccess other))
+            return false;
+        return Objects.equals(user, other.user) && groups.equals(other.groups)
+                && Objects.equals(status, other.status)
+                && groupCodes.equals(other.groupCodes) && otherCodes.equals(other.otherCodes);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchAccess{user=" + user + ", groups=" + groups + ", " + status
+                + " group " + groupCodes + " others " + otherCodes + "}";
+    }
+}
@@ -0,0 +1,75 @@
+package ch.semafor.gendas.search;
+
+import ch.semafor.gendas.model.Element;
+import ch.semafor.gendas.model.Element_;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * keyset cursor: selects the elements following the last element of the previous page
+ * in id order (descending unless ascending is set).
+ * Passed as search argument with key {@link #KEY}, the page number is ignored.
+ */
+public class SearchAfter {
+    public static final String KEY = "_after";
+
+    private final long id;
+    private final boolean ascending;
+
+    public SearchAfter(long id, boolean ascending) {
+        this.id = id;
+        this.ascending = ascending;
+    }
+
+    /**
+     * @param token     cursor returned with the previous page
+     * @param ascending id order of the pages
+     * @throws IllegalArgumentException if token is not a valid cursor
+     */
+    public static SearchAfter of(String token, boolean ascending) {
+        String s = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        if (!s.startsWith("id:")) {
+            throw new IllegalArgumentException("invalid cursor " + token);
+        }
+        return new SearchAfter(Long.parseLong(s.substring(3)), ascending);
+    }
+
+    /**
+     * @param id of the last element of a page
+     * @return cursor of the next page
+     */
+    public static String token(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    // used by Mongo
+    public Criteria getCriteria() {
+        return ascending ? where("_id").gt(id) : where("_id").lt(id);
+    }
+
+    // used by JPA
+    public Predicate getPredicate(CriteriaBuilder cb, Root<Element> root) {
+        return ascending ? cb.gt(root.get(Element_.id), id) : cb.lt(root.get(Element_.id), id);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchAfter{id=" + id + (ascending ? ", asc}" : ", desc}");
+    }
+}
@@ -0,0 +1,132 @@
+package ch.semafor.gendas.service;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * getters and methods of bean classes, collected once per class
+ */
+final class BeanAccessors {
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<List<Getter>> getters = new ClassValue<List<Getter>>() {
+        @Override
+        protected List<Getter> computeValue(Class<?> clazz) {
+            final List<Getter> l = new ArrayList<Getter>();
+            // same order as ReflectionUtils.doWithMethods (overridden methods included)
+            ReflectionUtils.doWithMethods(clazz, method -> {
+                final String name = method.getName();
+                if (((name.startsWith("get") && name.length() > 3)
+                        || (name.startsWith("is") && name.length() > 2))
+                        && !name.equals("getClass")) {
+                    l.add(new Getter(method));
+                }
+            });
+            return Collections.unmodifiableList(l);
+        }
+    };
+
+    private static final ClassValue<Map<String, Method>> methods = new ClassValue<Map<String, Method>>() {
+        @Override
+        protected Map<String, Method> computeValue(Class<?> clazz) {
+            final Map<String, Method> m = new HashMap<String, Method>();
+            for (Method method : ReflectionUtils.getAllDeclaredMethods(clazz)) {
+                m.putIfAbsent(method.getName(), method);
+            }
+            return Collections.unmodifiableMap(m);
+        }
+    };
+
+    private BeanAccessors() {
+    }
+
+    /**
+     * @return getters (get* and is* methods) of class and its super classes
+     */
+    static List<Getter> getters(final Class<?> clazz) {
+        return getters.get(clazz);
+    }
+
+    /**
+     * @return first declared method of class or super classes with name or null
+     */
+    static Method method(final Class<?> clazz, final String name) {
+        return name != null ? methods.get(clazz).get(name) : null;
+    }
+
+    /**
+     * getter with property name and generic arg type of list resolved
+     */
+    static final class Getter {
+        final Method method;
+        final String propName;
+        final Class<?> returnType;
+        // element type if return type is a list
+        final Class<?> genArgType;
+        private final MethodHandle handle;
+
+        Getter(final Method method) {
+            this.method = method;
+            final String name = method.getName();
+            final String prop = name.substring(name.startsWith("is") ? 2 : 3);
+            this.propName = Character.toLowerCase(prop.charAt(0)) + prop.substring(1);
+            this.returnType = method.getReturnType();
+            this.genArgType = returnType.equals(List.class) ? genericArgType(method.getGenericReturnType()) : null;
+            this.handle = handle(method);
+        }
+
+        /**
+         * invoke getter on bean
+         *
+         * @throws InvocationTargetException if the getter throws
+         * @throws IllegalAccessException    if the getter is not accessible
+         */
+        Object get(final Object bean) throws InvocationTargetException, IllegalAccessException {
+            if (handle == null) {
+                return method.invoke(bean);
+            }
+            try {
+                return handle.invokeExact(bean);
+            } catch (Throwable t) {
+                if (t instanceof ClassCastException && !method.getDeclaringClass().isInstance(bean)) {
+                    throw new IllegalArgumentException("object is not an instance of declaring class");
+                }
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        private static MethodHandle handle(final Method method) {
+            if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())) {
+                return null;
+            }
+            try {
+                return MethodHandles.publicLookup().unreflect(method).asType(GETTER);
+            } catch (IllegalAccessException e) {
+                return null; // not public, use method
+            }
+        }
+
+        private static Class<?> genericArgType(final Type type) {
+            if (type instanceof ParameterizedType pType
+                    && pType.getActualTypeArguments().length == 1
+                    && pType.getActualTypeArguments()[0] instanceof Class<?> c) {
+                return c;
+            }
+            return null;
+        }
+    }
+}
@@ -20,7 +20,6 @@ import ch.semafor.gendas.exceptions.ElementCreationException;
 import ch.semafor.gendas.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.ReflectionUtils;
 
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
@@ -46,6 +45,10 @@ public class ElementCreator extends Creator {
 
     private Map<Long, Object> loadedBean;
 
+    private Map<String, Owner> owners;
+
+    private Map<String, Group> groups;
+
     /**
      * @param elementTypeDao
      * @param propertyTypeDao
@@ -65,6 +68,17 @@ public class ElementCreator extends Creator {
     public void resetMaps() {
         beanElementMap = new HashMap<>();
         loadedBean = new HashMap<>();
+        owners = new HashMap<>();
+        groups = new HashMap<>();
+    }
+
+    /**
+     * reuse an owner already loaded by the caller
+     */
+    public void addOwner(final Owner owner) {
+        if (owner != null) {
+            owners.put(owner.getUsername(), owner);
+        }
     }
 
     /**
@@ -88,11 +102,9 @@ public class ElementCreator extends Creator {
         if (propName == null || propName.length() == 0) {
             return null;
         }
-        // ToDo, append, PMD: InefficientStringBuffering
-        final StringBuffer name = new StringBuffer("get" + propName);
-        name.setCharAt(3, Character.toUpperCase(propName.charAt(0)));
+        final String name = getMethodName("get", propName);
         try {
-            return beanClass.getMethod(name.toString());
+            return beanClass.getMethod(name);
             // 9/20/10 2:54 PM
         } catch (NoSuchMethodException ex) {
             logger.warn("No such Method '{}' in {}", name, beanClass.getCanonicalName());
@@ -101,7 +113,7 @@ public class ElementCreator extends Creator {
     }
 
     private boolean isProperty(Element e, String propName) {
-        return propertyTypeDao.findByElementTypeAndName(e.getElementType(), propName) != null;
+        return e.getElementType().getPropertyType(propName) != null;
     }
 
     private boolean isReference(Element e, String refName) {
@@ -123,7 +135,7 @@ public class ElementCreator extends Creator {
 
         try {
             final PropertyType propType =
-                    propertyTypeDao.findByElementTypeAndName(element.getElementType(), propName);
+                    element.getElementType().getPropertyType(propName);
             if (propType == null) {
                 logger.error("PropertyType {} of element type {} not found.", propName,
                         element.getElementType().getName());
@@ -189,53 +201,43 @@ public class ElementCreator extends Creator {
         logger.debug("checking Element  ({})", element.toString());
         beanElementMap.put(bean, element);
 
-        ReflectionUtils.doWithMethods(clazz, new ReflectionUtils.MethodCallback() {
-            public void doWith(final Method method) {
-                try {
-                    if (((method.getName().startsWith("get") && method.getName().length() > 3)
-                            || (method.getName().startsWith("is") && method.getName().length() > 2))
-                            && !method.getName().equals("getClass")) {
-                        final Class<?> retType = method.getReturnType();
-                        logger.debug("checking method return type {}", retType.getCanonicalName());
-                        if (!isPrimitiveType(retType)) {
-                            Class<?> genArgType = null;
-                            String type = retType.getCanonicalName();
-                            if (method.getReturnType().equals(java.util.List.class)) {
-                                genArgType = getGenericArgType(method.getGenericReturnType());
-                                type = genArgType.getCanonicalName();
-                            }
-                            logger.debug("composite {}", type);
-                            final String propName = getPropertyName(method);
-                            if (element.getElementType().hasReference(propName)) {
-                                logger.debug("about to get reference {}", propName);
-                                final Object ref = method.invoke(bean);
-                                if (ref != null && ref instanceof java.util.List) {
-                                    logger.debug("LIST SIZE {}", ((java.util.List) ref).size());
-                                    if (!isPrimitiveType(genArgType)) {
-                                        ElementRefs refs = element.getElementRefs(propName);
-                                        if (refs != null) {
-                                            logger.debug("setting ids/versions for references {}", propName);
-                                            final Iterator<Element> eIter = refs.getLastListOfElements().iterator();
-                                            final Iterator<Object> oIter = ((java.util.List) ref).iterator();
-                                            while (eIter.hasNext() && oIter.hasNext()) {
-                                                Object o = oIter.next();
-                                                if (o != null) {
-                                                    setMatchingIdsAndVersions(o, eIter.next(), genArgType);
-                                                }
-                                            }
+        for (BeanAccessors.Getter getter : BeanAccessors.getters(clazz)) {
+            try {
+                final Class<?> retType = getter.returnType;
+                logger.debug("checking method return type {}", retType.getCanonicalName());
+                if (!isPrimitiveType(retType)) {
+                    final Class<?> argType = getter.genArgType;
+                    logger.debug("composite {}", argType != null ? argType.getCanonicalName()
+                            : retType.getCanonicalName());
+                    final String propName = getter.propName;
+                    if (element.getElementType().hasReference(propName)) {
+                        logger.debug("about to get reference {}", propName);
+                        final Object ref = getter.get(bean);
+                        if (ref != null && ref instanceof java.util.List) {
+                            logger.debug("LIST SIZE {}", ((java.util.List) ref).size());
+                            if (!isPrimitiveType(argType)) {
+                                ElementRefs refs = element.getElementRefs(propName);
+                                if (refs != null) {
+                                    logger.debug("setting ids/versions for references {}", propName);
+                                    final Iterator<Element> eIter = refs.getLastListOfElements().iterator();
+                                    final Iterator<Object> oIter = ((java.util.List) ref).iterator();
+                                    while (eIter.hasNext() && oIter.hasNext()) {
+                                        Object o = oIter.next();
+                                        if (o != null) {
+                                            setMatchingIdsAndVersions(o, eIter.next(), argType);
                                         }
-                                        logger.debug("end");
                                     }
                                 }
+                                logger.debug("end");
                             }
                         }
                     }
-                } catch (InvocationTargetException | IllegalArgumentException | IllegalAccessException
-                         | CoreException e) {
-                    logger.error("cannot set id and version", e);
                 }
+            } catch (InvocationTargetException | IllegalArgumentException | IllegalAccessException
+                     | CoreException e) {
+                logger.error("cannot set id and version", e);
             }
-        });
+        }
     }
 
     /**
@@ -267,92 +269,82 @@ public class ElementCreator extends Creator {
         final Element element = new Element(elType);
         beanElementMap.put(bean, element);
 
-        ReflectionUtils.doWithMethods(clazz, new ReflectionUtils.MethodCallback() {
-            public void doWith(final Method method)
-                    throws IllegalArgumentException, IllegalAccessException {
-                try {
-                    logger.debug("Method is {}", method.getName());
-                    if (((method.getName().startsWith("get") && method.getName().length() > 3)
-                            || (method.getName().startsWith("is") && method.getName().length() > 2))
-                            && !method.getName().equals("getClass")) {
-                        final Class retType = method.getReturnType();
-                        String propName = getPropertyName(method);
-                        logger.debug("checking property type {} of method type {}", propName,
-                                retType.getCanonicalName());
-                        if (elType.isBeanId(propName)) {
-                            if (method.getReturnType().equals(Long.class)) {
-                                element.setId((Long) method.invoke(bean));
-                            } else if (method.getReturnType().equals(String.class)) {
-                                String id = (String) method.invoke(bean);
-                                if (id != null) {
-                                    element.setId(Long.valueOf(id));
-                                } else {
-                                    element.setId(null);
-                                }
-                            }
-                        } else if (elType.isBeanVersionId(propName)) {
-                            Long v = 0L;
-                            if (retType.equals(java.lang.Integer.class)
-                                    || retType.getCanonicalName().equals("int")) {
-                                v = Long.valueOf((Integer) method.invoke(bean));
-                                // above line as suggested by FB:
-                                // DM_NUMBER_CTOR v = new
-                                // Long((Integer)
-                                // (value));
-                            } else if (retType.equals(java.lang.Long.class)
-                                    || retType.getCanonicalName().equals("long")) {
-                                v = (Long) method.invoke(bean);
-                            }
-                            element.setVersion(v); // property must
-                            // be Int or Long!!
-                        } else if (isProperty(element, propName)) {
-                            logger.debug("property name {} type {}", propName, retType.getCanonicalName());
-                            setProperty(propName, method.invoke(bean), element);
-                        } else if (isReference(element, propName)) {
-                            Class<?> genArgType = null;
-                            String type = retType.getCanonicalName();
-                            if (method.getReturnType().equals(java.util.List.class)) {
-                                genArgType = getGenericArgType(method.getGenericReturnType());
-                                type = genArgType.getCanonicalName();
-                            }
-                            logger.debug("composite {}", type);
-                            logger.debug("about to add reference {}", propName);
-                            final Object ref = method.invoke(bean);
-                            if (ref != null) {
-                                try {
-                                    if (ref instanceof java.util.List) {
-                                        logger.debug("LIST SIZE {}", ((java.util.List) ref).size());
-                                        if (isPrimitiveType(genArgType)) {
-                                            logger.debug("LIST ELEMENTS TYPE {}", genArgType.getCanonicalName());
-                                            setProperty(propName, ref, element);
-                                        } else { // a list of composite
-                                            // types
-                                            logger.debug("adding list reference {}", propName);
-                                            final List<Element> elements = new ArrayList<Element>();
-                                            for (Object o : (java.util.List) ref) {
-                                                if (o != null) {
-                                                    elements.add(create(o, genArgType));
-                                                }
-                                            }
-                                            logger.debug("end");
-                                            element.setListOfElements(propName, elements);
+        for (BeanAccessors.Getter getter : BeanAccessors.getters(clazz)) {
+            try {
+                logger.debug("Method is {}", getter.method.getName());
+                final Class retType = getter.returnType;
+                String propName = getter.propName;
+                logger.debug("checking property type {} of method type {}", propName,
+                        retType.getCanonicalName());
+                if (elType.isBeanId(propName)) {
+                    if (retType.equals(Long.class)) {
+                        element.setId((Long) getter.get(bean));
+                    } else if (retType.equals(String.class)) {
+                        String id = (String) getter.get(bean);
+                        if (id != null) {
+                            element.setId(Long.valueOf(id));
+                        } else {
+                            element.setId(null);
+                        }
+                    }
+                } else if (elType.isBeanVersionId(propName)) {
+                    Long v = 0L;
+                    if (retType.equals(java.lang.Integer.class)
+                            || retType.getCanonicalName().equals("int")) {
+                        v = Long.valueOf((Integer) getter.get(bean));
+                        // above line as suggested by FB:
+                        // DM_NUMBER_CTOR v = new
+                        // Long((Integer)
+                        // (value));
+                    } else if (retType.equals(java.lang.Long.class)
+                            || retType.getCanonicalName().equals("long")) {
+                        v = (Long) getter.get(bean);
+                    }
+                    element.setVersion(v); // property must
+                    // be Int or Long!!
+                } else if (isProperty(element, propName)) {
+                    logger.debug("property name {} type {}", propName, retType.getCanonicalName());
+                    setProperty(propName, getter.get(bean), element);
+                } else if (isReference(element, propName)) {
+                    final Class<?> argType = getter.genArgType;
+                    logger.debug("composite {}", argType != null ? argType.getCanonicalName()
+                            : retType.getCanonicalName());
+                    logger.debug("about to add reference {}", propName);
+                    final Object ref = getter.get(bean);
+                    if (ref != null) {
+                        try {
+                            if (ref instanceof java.util.List) {
+                                logger.debug("LIST SIZE {}", ((java.util.List) ref).size());
+                                if (isPrimitiveType(argType)) {
+                                    logger.debug("LIST ELEMENTS TYPE {}", argType.getCanonicalName());
+                                    setProperty(propName, ref, element);
+                                } else { // a list of composite
+                                    // types
+                                    logger.debug("adding list reference {}", propName);
+                                    final List<Element> elements = new ArrayList<Element>();
+                                    for (Object o : (java.util.List) ref) {
+                                        if (o != null) {
+                                            elements.add(create(o, argType));
                                         }
-                                    } else { // not a list
-                                        logger.debug("adding reference {}", propName);
-                                        element.addElement(propName, create(ref, genArgType));
                                     }
-                                } catch (CoreException | ElementCreationException e) {
-                                    logger.error(e.getMessage(), e);
+                                    logger.debug("end");
+                                    element.setListOfElements(propName, elements);
                                 }
+                            } else { // not a list
+                                logger.debug("adding reference {}", propName);
+                                element.addElement(propName, create(ref, argType));
                             }
+                        } catch (CoreException | ElementCreationException e) {
+                            logger.error(e.getMessage(), e);
                         }
                     }
-                } catch (InvocationTargetException e) {
-                    logger.error(e.getMessage(), e);
                 }
+            } catch (InvocationTargetException e) {
+                logger.error(e.getMessage(), e);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Not allowed to access method '" + getter.method.getName() + "': " + e);
             }
-
-        });
+        }
         logger.debug("returning Element {}", element);
         return element;
     }
@@ -381,9 +373,9 @@ public class ElementCreator extends Creator {
                     Number num = (Number) data.get(key);
                     element.setVersion(num.longValue()); // property must be Int or Long!!
                 } else if (elType.isOwner(key)) {
-                    element.setOwner(ownerRepository.findByUsername((String) data.get(key)));
+                    element.setOwner(owners.computeIfAbsent((String) data.get(key), ownerRepository::findByUsername));
                 } else if (elType.isGroup(key)) {
-                    element.setGroup(groupRepository.findByName((String) data.get(key)));
+                    element.setGroup(groups.computeIfAbsent((String) data.get(key), groupRepository::findByName));
                 } else {
                     Object value = data.get(key);
                     if ((value != null && isPrimitiveType(value.getClass()))
@@ -486,7 +478,7 @@ public class ElementCreator extends Creator {
             logger.debug("{} VEC {} DIMS {}",
                     propName, vector, dims);
             final PropertyType propType =
-                    propertyTypeDao.findByElementTypeAndName(element.getElementType(), propName);
+                    element.getElementType().getPropertyType(propName);
             if (propType == null) {
                 logger.error("PropertyType {} of element type {} not found.", propName,
                         element.getElementType().getName());
@@ -519,12 +511,7 @@ public class ElementCreator extends Creator {
      * @return method or null if not found
      */
     private Method findMethod(final Class<?> clazz, final String name) {
-        for (Method m : ReflectionUtils.getAllDeclaredMethods(clazz)) {
-            if (m.getName().equals(name)) {
-                return m;
-            }
-        }
-        return null;
+        return BeanAccessors.method(clazz, name);
     }
 
     private void loadSimpleProperty(Method method, final PropertyValueList vlist,
@@ -0,0 +1,287 @@
+package ch.semafor.gendas.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * read through cache of element maps by id and projection.
+ * An entry holds the versions of the element and of all elements included in the map,
+ * it is only used if these versions are still current (one version query instead of
+ * loading the element tree). The weight of an entry is the number of values of its map.
+ * Owner names are not versioned, the maps of an owner are evicted when it is saved.
+ * Disabled if the weight is zero.
+ */
+@Component
+public class ElementMapCache {
+    private static final Logger logger = LoggerFactory.getLogger(ElementMapCache.class);
+
+    // owner of maps with owner names but without usernames
+    private static final String ANY_OWNER = "";
+
+    private final Cache<Key, Entry> maps;
+    // keys of the maps including an element or names of an owner
+    private final ConcurrentMap<Long, Set<Key>> keysByElement = new ConcurrentHashMap<Long, Set<Key>>();
+    private final ConcurrentMap<String, Set<Key>> keysByOwner = new ConcurrentHashMap<String, Set<Key>>();
+
+    public ElementMapCache(ObjectProvider<MeterRegistry> meterRegistry,
+                           @Value("${app.elementMapCacheWeight:1000000}") long weight,
+                           @Value("${app.elementMapCacheTtl:30m}") Duration ttl) {
+        this.maps = weight > 0 ? CacheBuilder.newBuilder()
+                .maximumWeight(weight)
+                .<Key, Entry>weigher((k, e) -> e.weight)
+                .expireAfterWrite(ttl)
+                .removalListener(this::unindex)
+                .recordStats()
+                .build() : null;
+        if (maps != null) {
+            meterRegistry.ifAvailable(r -> GuavaCacheMetrics.monitor(r, maps, "elementmaps"));
+        }
+    }
+
+    /**
+     * map of element with versions of all elements it includes
+     */
+    public static final class Versioned {
+        final Map<String, Object> map;
+        final Map<Long, Long> versions;
+
+        /**
+         * @param map      of element
+         * @param versions by id of element and included elements (not cached if any is null)
+         */
+        public Versioned(Map<String, Object> map, Map<Long, Long> versions) {
+            this.map = map;
+            this.versions = versions;
+        }
+    }
+
+    /**
+     * get map from cache if its versions are current or load and cache it
+     *
+     * @param id       of element
+     * @param pnames   projection (see {@link ch.semafor.gendas.model.Element#toMap(List, Long)})
+     * @param versions current versions of the elements with the given ids
+     * @param loader   called on cache miss, returns null if not found
+     * @return copy of the map or null if not found
+     */
+    public Map<String, Object> get(Long id, List<String> pnames,
+                                   Function<Collection<Long>, Map<Long, Long>> versions,
+                                   Supplier<Versioned> loader) {
+        if (maps == null || id == null) {
+            Versioned v = loader.get();
+            return v != null ? v.map : null;
+        }
+        final Key key = new Key(id, pnames);
+        Entry e = maps.getIfPresent(key);
+        if (e != null) {
+            if (e.versions.equals(versions.apply(e.versions.keySet()))) {
+                return copy(e.map);
+            }
+            logger.debug("element {} modified", id);
+            maps.invalidate(key);
+        }
+        Versioned v = loader.get();
+        if (v == null) {
+            return null;
+        }
+        if (v.versions.values().stream().noneMatch(Objects::isNull)) {
+            int[] weight = {0};
+            Map<String, Object> m = copy(v.map, weight);
+            Set<String> owners = new HashSet<String>();
+            addOwners(m, owners);
+            Entry entry = new Entry(m, Map.copyOf(v.versions), Set.copyOf(owners), weight[0]);
+            for (Long i : entry.versions.keySet()) {
+                keysByElement.computeIfAbsent(i, k -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+            for (String o : entry.owners) {
+                keysByOwner.computeIfAbsent(o, k -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+            maps.put(key, entry);
+        }
+        return v.map;
+    }
+
+    /**
+     * remove all maps including element
+     *
+     * @param id of element
+     */
+    public void evict(Long id) {
+        if (maps != null && id != null) {
+            invalidate(keysByElement.get(id));
+        }
+    }
+
+    /**
+     * remove all maps with names of owner now and after the current transaction
+     * completed (a concurrent read may cache the names before the commit)
+     *
+     * @param username of owner
+     */
+    public void evictOwner(String username) {
+        if (maps == null || username == null) {
+            return;
+        }
+        Runnable evict = () -> {
+            invalidate(keysByOwner.get(username));
+            invalidate(keysByOwner.get(ANY_OWNER));
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        if (maps != null) {
+            maps.invalidateAll();
+        }
+    }
+
+    /**
+     * @return true if the map of the projection includes referenced elements
+     */
+    public static boolean withReferences(List<String> pnames) {
+        return pnames == null || pnames.isEmpty()
+                || pnames.stream().anyMatch(n -> n != null && n.indexOf('.') > 0);
+    }
+
+    private void invalidate(Set<Key> keys) {
+        if (keys != null) {
+            maps.invalidateAll(new ArrayList<Key>(keys));
+        }
+    }
+
+    // remove key from the indexes unless it was cached again meanwhile
+    private void unindex(RemovalNotification<Key, Entry> n) {
+        Key key = n.getKey();
+        Entry e = n.getValue();
+        if (key == null || e == null) {
+            return;
+        }
+        Entry current = maps.asMap().get(key);
+        for (Long id : e.versions.keySet()) {
+            if (current == null || !current.versions.containsKey(id)) {
+                keysByElement.computeIfPresent(id, (k, s) -> s.remove(key) && s.isEmpty() ? null : s);
+            }
+        }
+        for (String o : e.owners) {
+            if (current == null || !current.owners.contains(o)) {
+                keysByOwner.computeIfPresent(o, (k, s) -> s.remove(key) && s.isEmpty() ? null : s);
+            }
+        }
+    }
+
+    // usernames of owners and changers whose names are included
+    private static void addOwners(Object value, Set<String> owners) {
+        if (value instanceof Map<?, ?> m) {
+            addOwner(m, "owner", "ownername", owners);
+            addOwner(m, "changer", "changername", owners);
+            for (Object o : m.values()) {
+                addOwners(o, owners);
+            }
+        } else if (value instanceof List<?> l) {
+            for (Object o : l) {
+                addOwners(o, owners);
+            }
+        }
+    }
+
+    private static void addOwner(Map<?, ?> m, String user, String name, Set<String> owners) {
+        if (m.get(name) != null) {
+            owners.add(m.get(user) instanceof String u ? u : ANY_OWNER);
+        }
+    }
+
+    private static Map<String, Object> copy(Map<String, Object> map) {
+        return copy(map, new int[1]);
+    }
+
+    // deep copy of maps, lists and dates, counts the values
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(T value, int[] weight) {
+        weight[0]++;
+        if (value instanceof Map<?, ?> m) {
+            Map<Object, Object> c = new HashMap<Object, Object>(m.size() * 4 / 3 + 1);
+            for (Map.Entry<?, ?> e : m.entrySet()) {
+                c.put(e.getKey(), copy(e.getValue(), weight));
+            }
+            return (T) c;
+        }
+        if (value instanceof List<?> l) {
+            List<Object> c = new ArrayList<Object>(l.size());
+            for (Object o : l) {
+                c.add(copy(o, weight));
+            }
+            return (T) c;
+        }
+        if (value instanceof Date d) {
+            return (T) d.clone();
+        }
+        return value;
+    }
+
+    private static final class Key {
+        final Long id;
+        final List<String> pnames;
+
+        Key(Long id, List<String> pnames) {
+            this.id = id;
+            this.pnames = pnames != null ? new ArrayList<String>(pnames) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && id.equals(k.id) && Objects.equals(pnames, k.pnames);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * id.hashCode() + Objects.hashCode(pnames);
+        }
+    }
+
+    private static final class Entry {
+        final Map<String, Object> map;
+        final Map<Long, Long> versions;
+        final Set<String> owners;
+        final int weight;
+
+        Entry(Map<String, Object> map, Map<Long, Long> versions, Set<String> owners, int weight) {
+            this.map = map;
+            this.versions = versions;
+            this.owners = owners;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package ch.semafor.gendas.service;
+
+import ch.semafor.gendas.model.ElementRegistration;
+import ch.semafor.gendas.model.ElementType;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * registry of the collection (type) of each element id
+ * backed by the element_registry collection with an lru cache in front
+ */
+@Profile("mongo")
+@Service
+public class ElementRegistryService {
+    private static final Logger logger = LoggerFactory.getLogger(ElementRegistryService.class);
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Value("${app.elementRegistryBackfill:true}")
+    private boolean backfillOnStartup;
+
+    private final Cache<Long, String> types;
+
+    public ElementRegistryService(@Value("${app.elementRegistryCacheSize:10000}") long cacheSize) {
+        this.types = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /**
+     * register type of element if not yet known
+     *
+     * @param id   of element
+     * @param type collection name of element
+     */
+    public void register(Long id, String type) {
+        if (id == null || type == null || type.equals(types.getIfPresent(id))) {
+            return;
+        }
+        mongoOperations.upsert(query(where("_id").is(id)), Update.update("type", type),
+                ElementRegistration.class);
+        types.put(id, type);
+    }
+
+    /**
+     * @param id of element
+     * @return type of element or null if not registered
+     */
+    public String findType(Long id) {
+        if (id == null) {
+            return null;
+        }
+        String type = types.getIfPresent(id);
+        if (type != null) {
+            return type;
+        }
+        ElementRegistration reg = mongoOperations.findById(id, ElementRegistration.class);
+        if (reg == null) {
+            return null;
+        }
+        types.put(id, reg.getType());
+        return reg.getType();
+    }
+
+    public void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        types.invalidate(id);
+        mongoOperations.remove(query(where("_id").is(id)), ElementRegistration.class);
+    }
+
+    /**
+     * register all elements of all element type collections
+     *
+     * @return number of registered elements
+     */
+    public long backfill() {
+        Set<String> collections = mongoOperations.getCollectionNames();
+        long count = 0;
+        for (ElementType et : mongoOperations.findAll(ElementType.class, "types")) {
+            String type = et.getName();
+            if (!collections.contains(type)) {
+                continue;
+            }
+            BulkOperations ops = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                    ElementRegistration.class);
+            int n = 0;
+            // raw driver access: no conversion events for each document
+            for (Document d : mongoOperations.getCollection(type).find()
+                    .projection(new Document("_id", 1)).batchSize(BATCH_SIZE)) {
+                Object id = d.get("_id");
+                if (!(id instanceof Number)) {
+                    continue;
+                }
+                ops.upsert(query(where("_id").is(((Number) id).longValue())), Update.update("type", type));
+                if (++n % BATCH_SIZE == 0) {
+                    ops.execute();
+                    ops = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                            ElementRegistration.class);
+                }
+            }
+            if (n % BATCH_SIZE != 0) {
+                ops.execute();
+            }
+            logger.debug("registered {} elements of type {}", n, type);
+            count += n;
+        }
+        logger.info("registered {} elements", count);
+        return count;
+    }
+
+    /**
+     * fill registry of existing databases once
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (backfillOnStartup && mongoOperations.estimatedCount(ElementRegistration.class) == 0) {
+            backfill();
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.data.domain.Sort;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ElementService {
     public static final String IMPORT_PREFIX = "{import}:";
@@ -74,6 +75,57 @@ public interface ElementService {
                                          Map<String, Integer> sortmap,
                                          boolean latestRevision);
 
+    /**
+     * get list of maps by type like findByType but read the own properties of
+     * the elements without loading entities (references are not included)
+     */
+    default List<Map<String, Object>> findFlatByType(final String type, final String owner,
+                                                     final List<String> pnames,
+                                                     final Map<String, Object> searchargs,
+                                                     final Map<String, Map<String, Object>> childargs,
+                                                     int page, int pagesize,
+                                                     Map<String, Integer> sortmap,
+                                                     boolean latestRevision, Date changedSince) {
+        return findByType(type, owner, pnames, searchargs, childargs, page, pagesize, sortmap,
+                latestRevision, changedSince);
+    }
+
+    /**
+     * pass the maps of findByType one by one to consumer
+     * without holding all elements of the result in memory
+     *
+     * @return number of elements
+     */
+    default int streamByType(final String type, final String owner,
+                             final List<String> pnames,
+                             final Map<String, Object> searchargs,
+                             final Map<String, Map<String, Object>> childargs,
+                             int page, int pagesize,
+                             Map<String, Integer> sortmap,
+                             boolean latestRevision, Date changedSince,
+                             Consumer<Map<String, Object>> consumer) {
+        List<Map<String, Object>> l = findByType(type, owner, pnames, searchargs, childargs, page, pagesize,
+                sortmap, latestRevision, changedSince);
+        l.forEach(consumer);
+        return l.size();
+    }
+
+    /**
+     * count elements found by findByType (all pages)
+     *
+     * @param type         of elements
+     * @param owner        name of owner or null
+     * @param searchargs   map of key-value pairs
+     * @param childargs    map of child components with key-value pairs
+     * @param latestRevision if true search latest revisions only otherwise search all
+     * @param changedSince last modification within this date
+     * @return number of elements
+     */
+    long countByType(final String type, final String owner,
+                     final Map<String, Object> searchargs,
+                     final Map<String, Map<String, Object>> childargs,
+                     boolean latestRevision, Date changedSince);
+
     /**
      * perform version check (optimistic locking)
      *
@@ -1,20 +1,31 @@
 package ch.semafor.gendas.service;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,7 +34,9 @@ import org.springframework.data.domain.Sort.Order;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import ch.semafor.gendas.dao.jpa.CurrentValueListRepositoryJpa;
 import ch.semafor.gendas.dao.jpa.ElementRepositoryJpa;
+import ch.semafor.gendas.dao.jpa.ElementRowReader;
 import ch.semafor.gendas.dao.jpa.ElementTypeRepositoryJpa;
 import ch.semafor.gendas.dao.jpa.GroupRepositoryJpa;
 import ch.semafor.gendas.dao.jpa.ModificationRepositoryJpa;
@@ -33,6 +46,7 @@ import ch.semafor.gendas.exceptions.CoreException;
 import ch.semafor.gendas.exceptions.ElementCreationException;
 import ch.semafor.gendas.exceptions.ElementTypeCreationException;
 import ch.semafor.gendas.exceptions.UsernameNotFoundException;
+import ch.semafor.gendas.model.CurrentValueList;
 import ch.semafor.gendas.model.Element;
 import ch.semafor.gendas.model.ElementRefList;
 import ch.semafor.gendas.model.ElementRefs;
@@ -40,8 +54,11 @@ import ch.semafor.gendas.model.ElementType;
 import ch.semafor.gendas.model.Group;
 import ch.semafor.gendas.model.Modification;
 import ch.semafor.gendas.model.Owner;
+import ch.semafor.gendas.model.Property;
+import ch.semafor.gendas.model.PropertyValueList;
 import ch.semafor.gendas.model.TableModification;
-import ch.semafor.gendas.repldbfunc.MapComparator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.PersistenceException;
 
 @Transactional(readOnly = true)
@@ -49,6 +66,8 @@ import jakarta.persistence.PersistenceException;
 @Profile("jpa")
 public class ElementServiceJpa implements ElementService {
     private static final Logger logger = LoggerFactory.getLogger(ElementServiceJpa.class);
+    private static final int STREAM_CLEAR_SIZE = 100;
+    private static final int PROJECTION_CHUNK_SIZE = 500;
     @Autowired
     private ElementRepositoryJpa elementRepository;
     @Autowired
@@ -61,6 +80,20 @@ public class ElementServiceJpa implements ElementService {
     private GroupRepositoryJpa groupRepository;
     @Autowired
     private PropertyTypeRepositoryJpa propertyTypeRepositoryJpa;
+    @Autowired
+    private OwnerNameCache ownerNames;
+    @Autowired
+    private CurrentValueListRepositoryJpa currentValueListRepository;
+    @Autowired
+    private ElementRowReader rowReader;
+    @Autowired
+    private ElementTypeRegistry elementTypes;
+    @Autowired
+    private ElementMapCache elementMaps;
+    @Value("${app.searchProjection:false}")
+    private boolean searchProjection;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Transactional
     public ElementType createElementType(final String typename, final List<Map<String, Object>> typedef, String idName, String versionName) {
@@ -70,6 +103,7 @@ public class ElementServiceJpa implements ElementService {
             logger.info("Saving " + t.getName());
             logger.debug(t.toString());
             elementTypeRepositoryJpa.save(t);
+            elementTypes.invalidate();
             return t;
         } catch (DataIntegrityViolationException ex) {
             throw new ElementTypeCreationException("type " + typename + " " +
@@ -82,9 +116,14 @@ public class ElementServiceJpa implements ElementService {
         return elementTypeRepositoryJpa.findAll();
     }
 
-    private Element createElement(Map<String, ?> map, String type, String username) throws ElementCreationException, CoreException, UsernameNotFoundException {
-        final Owner owner = (username != null) ? ownerRepository.findByUsername(username) : null;
-        final ElementType elType = elementTypeRepositoryJpa.findByName(type);
+    /**
+     * create element tree from map and assign it to the persistent element
+     *
+     * @param owner    of new elements
+     * @param existing persistent element already loaded for the id of the map or null
+     */
+    private Element createElement(Map<String, ?> map, String type, Owner owner, Element existing) throws ElementCreationException, CoreException {
+        final ElementType elType = getElementType(type);
         if (elType == null) {
             throw new ElementCreationException("Invalid element type: " + type);
         }
@@ -95,13 +134,16 @@ public class ElementServiceJpa implements ElementService {
                 elementRepository,
                 ownerRepository, groupRepository,
                 propertyTypeRepositoryJpa);
+        creator.addOwner(owner);
         logger.debug("about to create element tree for map of {}", type);
         final Element newElement = creator.create(map, elType);
         creator.resetMaps();
 
         Element element = null;
         Long id = newElement.getId();
-        if (id != null && id.compareTo(Long.valueOf(0L)) > 0) {
+        if (existing != null && existing.getId().equals(id)) {
+            element = existing;
+        } else if (id != null && id.compareTo(Long.valueOf(0L)) > 0) {
             element = elementRepository.findById(id).orElse(null);
         }
         if (element == null) {
@@ -133,25 +175,41 @@ public class ElementServiceJpa implements ElementService {
             throws UsernameNotFoundException, CoreException {
 
         logger.debug("save element {} .", map);
-        Map<String, Object> diff = getModifiedProperties(map);
-        if (diff != null && diff.isEmpty())
-            return map;
-
-        if (diff != null) {
+        // the persistent element is loaded once for change detection and assign
+        final Element existing = findExisting(map);
+        if (existing != null) {
+            Map<String, Object> diff = modifiedProperties(existing, map);
+            if (diff.isEmpty())
+                return map;
             logger.debug("diff {} .", diff);
         }
         try {
-            Element element = createElement(map, type, username);
+            final Owner owner = (username != null) ? ownerRepository.findByUsername(username) : null;
+            Element element = createElement(map, type, owner, existing);
             element.getLastModification().setComment(changeComment);
-            element.getLastModification().setUser(ownerRepository.findByUsername(username));
+            element.getLastModification().setUser(owner);
             logger.debug("Before elementRepository save {}", element);
+            // existing children are not modified by assign, only new ones need projection rows
+            final Set<Element> created = Collections.newSetFromMap(new IdentityHashMap<Element, Boolean>());
+            if (searchProjection) {
+                addCreatedChildren(element, created);
+            }
             element = elementRepository.save(element);
             element.setVersion(element.getVersion() + 1);
+            if (searchProjection) {
+                currentValueListRepository.deleteByElementId(element.getId());
+                writeSearchProjection(element);
+                for (Element child : created) {
+                    writeSearchProjection(child);
+                }
+            }
+
+            elementMaps.evict(element.getId());
 
             // //creator.setMatchingIdsAndVersions(map, element, null);
             logger.debug("map of type {} persisted.", type);
             logger.debug("return element {} .", element);
-            return element.toMap();
+            return element.toMap(null, null, ownerNames::fullName);
         } catch (PersistenceException e) {
             throw new CoreException("Constrained violation: " + e.getMessage()
                     + " for " + type + " of " + username);
@@ -161,6 +219,68 @@ public class ElementServiceJpa implements ElementService {
         }
     }
 
+    /**
+     * collect the referenced elements that are not yet persistent
+     */
+    private static void addCreatedChildren(Element element, Set<Element> created) {
+        for (ElementRefs r : element.getReferences()) {
+            ElementRefList rl = r.getLastElementRefList();
+            if (rl != null) {
+                for (Element child : rl.getElementList()) {
+                    if (child != null && child.getId() == null && created.add(child)) {
+                        addCreatedChildren(child, created);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * add the current value lists of element to the search projection
+     */
+    private void writeSearchProjection(Element element) {
+        for (Property p : element.getProperties()) {
+            PropertyValueList vlist = p.getCurrentValueList();
+            if (vlist != null) {
+                currentValueListRepository.save(new CurrentValueList(element.getId(), p.getName(), vlist));
+            }
+        }
+    }
+
+    /**
+     * rebuild the search projection of all active elements in chunks,
+     * the persistence context is cleared after each chunk
+     *
+     * @return number of elements
+     */
+    @Transactional
+    public int rebuildSearchProjection() {
+        currentValueListRepository.deleteAllInBatch();
+        final List<Long> ids = elementRepository.getAllActiveIds();
+        for (List<Long> chunk : Iterables.partition(ids, PROJECTION_CHUNK_SIZE)) {
+            for (Element e : elementRepository.findAllById(chunk)) {
+                writeSearchProjection(e);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+        logger.info("search projection of {} elements rebuilt", ids.size());
+        return ids.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initElementTypes() {
+        elementTypes.get(null, this::loadElementTypes, elementTypeRepositoryJpa::existsByName);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initSearchProjection() {
+        if (searchProjection && currentValueListRepository.count() == 0) {
+            rebuildSearchProjection();
+        }
+    }
+
     /**
      *
      */
@@ -182,6 +302,87 @@ public class ElementServiceJpa implements ElementService {
                                                 int page, int pagesize,
                                                 Map<String, Integer> sortmap, boolean latestRevision, Date changedSince) {
         logger.debug("searching elements of type {}, pnames = {}", type, pnames);
+        List<Element> elements = findElements(type, owner, searchargs, childargs, page, pagesize,
+                sortmap, latestRevision, changedSince);
+        elementRepository.fetchProperties(elements, pnames);
+        List<Map<String, Object>> r = new ArrayList<Map<String, Object>>(elements.size());
+        logger.debug("findByType: BEGIN toMap");
+        for (Element e : elements) {
+            logger.debug("add element {} to r", e);
+            r.add(e.toMap(pnames, null, ownerNames::fullName));
+        }
+        logger.debug("findByType: END toMap");
+
+        return r;
+    }
+
+    @Override
+    public List<Map<String, Object>> findFlatByType(final String type, final String owner,
+                                                    final List<String> pnames,
+                                                    final Map<String, Object> searchargs,
+                                                    final Map<String, Map<String, Object>> childargs,
+                                                    int page, int pagesize,
+                                                    Map<String, Integer> sortmap, boolean latestRevision, Date changedSince) {
+        logger.debug("searching flat elements of type {}, pnames = {}", type, pnames);
+        List<Element> elements = findElements(type, owner, searchargs, childargs, page, pagesize,
+                sortmap, latestRevision, changedSince);
+        Map<Long, Map<String, Object>> props = rowReader.readProperties(
+                elements.stream().map(Element::getId).toList(), pnames);
+        List<Map<String, Object>> r = new ArrayList<Map<String, Object>>(elements.size());
+        for (Element e : elements) {
+            Map<String, Object> map = new HashMap<String, Object>();
+            e.putAttributes(map, pnames, ownerNames::fullName);
+            map.putAll(props.getOrDefault(e.getId(), Map.of()));
+            r.add(map);
+        }
+        return r;
+    }
+
+    @Override
+    public long countByType(final String type, final String owner,
+                            final Map<String, Object> searchargs,
+                            final Map<String, Map<String, Object>> childargs,
+                            boolean latestRevision, Date changedSince) {
+        return elementRepository.countElementsByArgs(type, ownerRepository.findByUsername(owner),
+                Maps.countArgs(searchargs), childargs, latestRevision, changedSince);
+    }
+
+    @Override
+    public int streamByType(final String type, final String owner,
+                            final List<String> pnames,
+                            final Map<String, Object> searchargs,
+                            final Map<String, Map<String, Object>> childargs,
+                            int page, int pagesize,
+                            Map<String, Integer> sortmap, boolean latestRevision, Date changedSince,
+                            Consumer<Map<String, Object>> consumer) {
+        logger.debug("streaming elements of type {}, pnames = {}", type, pnames);
+        Pageable pageable = pageable(searchargs, page, pagesize, sortmap);
+        int n = 0;
+        try (Stream<Element> elements = elementRepository.streamElementsByArgs(type,
+                ownerRepository.findByUsername(owner), searchargs, childargs, pageable,
+                latestRevision, changedSince)) {
+            for (Iterator<List<Element>> it = Iterators.partition(elements.iterator(), STREAM_CLEAR_SIZE);
+                 it.hasNext(); ) {
+                List<Element> chunk = it.next();
+                // properties of the chunk in batches instead of one query per element
+                elementRepository.fetchProperties(chunk, pnames);
+                for (Element e : chunk) {
+                    consumer.accept(e.toMap(pnames, null, ownerNames::fullName));
+                }
+                n += chunk.size();
+                // release converted elements, the stream continues with new instances
+                entityManager.clear();
+            }
+        }
+        logger.debug("streamed {} elements", n);
+        return n;
+    }
+
+    /**
+     * page request of a search, removes the ignorecase option from searchargs
+     */
+    private Pageable pageable(final Map<String, Object> searchargs, int page, int pagesize,
+                              Map<String, Integer> sortmap) {
         boolean ignorecase = false;
         if (searchargs != null && searchargs.containsKey("ignorecase")) {
             ignorecase = (Boolean) searchargs.get("ignorecase");
@@ -192,90 +393,78 @@ public class ElementServiceJpa implements ElementService {
             pagesize = Integer.MAX_VALUE;
             page = 0;
         }
+        if (page < 0) {
+            page = 0;
+        }
         Pageable pageable = PageRequest.of(page, pagesize,
                     Sort.by(Sort.Direction.DESC, "id"));
 
-        if (sortmap != null) {
+        if (sortmap != null && !sortmap.isEmpty()) {
+            // all keys are sorted by the database in the order given
             var orders = new ArrayList<Order>();
-            // there are keys we can always sort on
-            var alwaysDBSortable = Arrays.asList("changed", "id", "index", "owner", "ownername");
-            for (var key : alwaysDBSortable) {
-                var order = sortmap.remove(key);
-                if (order != null) {
-                    var direction = order == 1 ? Sort.Direction.ASC : Sort.Direction.DESC;
-                    orders.add(new Order(direction, key));
-                }
-            }
-            if (!sortmap.isEmpty()) {
-                // we can only sort on one arbitrary element property on the db
-                var firstKey = sortmap.keySet().iterator().next();
-                var order = sortmap.remove(firstKey);
-                if (order != null) {
-                    var direction = order == 1 ? Sort.Direction.ASC : Sort.Direction.DESC;
-                    orders.add(new Order(direction, firstKey));
-                }
+            for (var e : sortmap.entrySet()) {
+                var direction = Integer.valueOf(1).equals(e.getValue()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+                var order = new Order(direction, e.getKey());
+                orders.add(ignorecase ? order.ignoreCase() : order);
             }
-            // remove first element in map
-            pageable = PageRequest.of(page, pagesize,
-                        Sort.by(orders));
+            pageable = PageRequest.of(page, pagesize, Sort.by(orders));
         }
-        var canDBPage = (sortmap == null || sortmap.isEmpty()) && pagesize != Integer.MAX_VALUE;
+        return pageable;
+    }
+
+    private List<Element> findElements(final String type, final String owner,
+                                       final Map<String, Object> searchargs,
+                                       final Map<String, Map<String, Object>> childargs,
+                                       int page, int pagesize,
+                                       Map<String, Integer> sortmap, boolean latestRevision, Date changedSince) {
+        Pageable pageable = pageable(searchargs, page, pagesize, sortmap);
+        var canDBPage = pageable.getPageSize() != Integer.MAX_VALUE;
         List<Element> elements = null;
         elements = elementRepository.findElementsByArgs(type, ownerRepository.findByUsername(owner),
                 searchargs, childargs, pageable, latestRevision, changedSince, canDBPage);
         if (elements == null) {
             logger.warn("Elements is null");
-            return new ArrayList<Map<String, Object>>(0);
+            return new ArrayList<Element>(0);
         }
 
         logger.debug("findElementsByArgs returned {} elements", elements.size());
-        List<Map<String, Object>> r = new ArrayList<Map<String, Object>>(elements.size());
-        logger.debug("findByType: BEGIN toMap");
-        for (Element e : elements) {
-            logger.debug("add element {} to r", e);
-            r.add(e.toMap(pnames));
-        }
-        logger.debug("findByType: END toMap");
-
-        //sort 0=DESC, 1=ASC
-        if (sortmap != null && !sortmap.isEmpty()) {
-            MapComparator cmp = new MapComparator();
-            cmp.ignorecase = ignorecase;
-            for (String key : sortmap.keySet()) {
-                cmp.key = key;
-                cmp.order = sortmap.get(key);
-                Collections.sort(r, cmp);
-            }
-            logger.debug("findByType: sorted");
-
-        }
-
-        if (!canDBPage && pagesize != Integer.MAX_VALUE) {
-            if (page * pagesize > r.size() - 1) return new ArrayList<Map<String, Object>>();
-            return r.subList(page * pagesize, Math.min((page + 1) * pagesize, r.size()));
-        }
-        return r;
+        return elements;
     }
 
     @Override
     public Map<String, Object> getModifiedProperties(
             Map<String, Object> elementMap) {
         logger.debug("element map {}", elementMap.keySet().size());
-        if (elementMap.get("id") != null) {
-            Long id = ((Number) elementMap.get("id")).longValue();
-            final Map<String, Object> orig = getElementMap(id, false);
-            if (orig != null) {
-                final var ignoredProps = List.of("modcomment", "changed", "changer", "changername", "type", "ownername");
-                var diff = Maps.diff(orig, elementMap);
-                for (var p : ignoredProps) {
-                    diff.remove((p));
-                }
-                return diff;
-            }
+        final Element e = findExisting(elementMap);
+        if (e != null) {
+            return modifiedProperties(e, elementMap);
         }
         return null; // new element
     }
 
+    /**
+     * @return persistent element with the id of the map or null if it is new
+     */
+    private Element findExisting(Map<String, Object> elementMap) {
+        if (elementMap.get("id") instanceof Number id) {
+            return elementRepository.findById(id.longValue()).orElse(null);
+        }
+        return null;
+    }
+
+    /**
+     * compare map with the persistent element (without db infos)
+     */
+    private Map<String, Object> modifiedProperties(Element e, Map<String, Object> elementMap) {
+        final Map<String, Object> orig = e.toMap(new ArrayList<>(), null, ownerNames::fullName);
+        final var ignoredProps = List.of("modcomment", "changed", "changer", "changername", "type", "ownername");
+        var diff = Maps.diff(orig, elementMap);
+        for (var p : ignoredProps) {
+            diff.remove((p));
+        }
+        return diff;
+    }
+
     @Override
     public boolean checkVersion(final Long id, final Long version, String type) {
         /*
@@ -296,15 +485,55 @@ public class ElementServiceJpa implements ElementService {
 
     @Override
     public Map<String, Object> getElementMap(Long id, boolean withDbInfos) {
-        Element e = elementRepository.findById(id).orElse(null);
-        if (e != null){
-            List<String> pnames = null;
-            if (!withDbInfos){
-                pnames = new ArrayList<>();
+        final List<String> pnames = withDbInfos ? null : new ArrayList<>();
+        return elementMaps.get(id, pnames, this::findVersions, () -> {
+            Element e = elementRepository.findById(id).orElse(null);
+            if (e != null) {
+                return new ElementMapCache.Versioned(e.toMap(pnames, null, ownerNames::fullName),
+                        versionsOf(e, ElementMapCache.withReferences(pnames)));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @param ids of elements
+     * @return current versions by id (deleted elements missing)
+     */
+    private Map<Long, Long> findVersions(Collection<Long> ids) {
+        final Map<Long, Long> versions = new HashMap<Long, Long>();
+        for (List<Long> chunk : Iterables.partition(ids, 1000)) {
+            for (Object[] row : elementRepository.findVersions(chunk)) {
+                versions.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * versions of element and of the elements included in its map
+     */
+    private static Map<Long, Long> versionsOf(Element e, boolean withReferences) {
+        final Map<Long, Long> versions = new HashMap<Long, Long>();
+        addVersions(e, withReferences, versions);
+        return versions;
+    }
+
+    private static void addVersions(Element e, boolean withReferences, Map<Long, Long> versions) {
+        if (e == null || versions.containsKey(e.getId())) {
+            return;
+        }
+        versions.put(e.getId(), e.getVersion());
+        if (withReferences) {
+            for (ElementRefs r : e.getReferences()) {
+                List<Element> el = r.getListOfElements(TableModification.MaxRevision);
+                if (el != null) {
+                    for (Element child : el) {
+                        addVersions(child, true, versions);
+                    }
+                }
             }
-            return e.toMap(pnames);
         }
-        return null;
     }
 
     @Override
@@ -333,6 +562,7 @@ public class ElementServiceJpa implements ElementService {
 
         logger.info("Remove group {}", oldGroup.getName());
         groupRepository.delete(oldGroup);
+        elementMaps.evictAll();
 
         return changes;
     }
@@ -341,13 +571,25 @@ public class ElementServiceJpa implements ElementService {
     public Map<String, Object> getElement(Long id, Long mod_id) {
         final Element e = elementRepository.findById(id).orElse(null);
         if (e != null)
-            return e.toMap(mod_id);
+            return e.toMap(null, mod_id, ownerNames::fullName);
         return null;
     }
 
     @Override
     public ElementType getElementType(String type) {
-        return elementTypeRepositoryJpa.findByName(type);
+        return elementTypes.get(type, this::loadElementTypes, elementTypeRepositoryJpa::existsByName);
+    }
+
+    /**
+     * load all element types for the registry
+     */
+    private List<ElementType> loadElementTypes() {
+        final List<ElementType> types = elementTypeRepositoryJpa.findAll();
+        for (ElementType t : types) {
+            Hibernate.initialize(t.getPropertyTypes());
+            Hibernate.initialize(t.getReferences());
+        }
+        return types;
     }
 
     @Override
@@ -369,7 +611,7 @@ public class ElementServiceJpa implements ElementService {
     @Override
     public List<Map<String, Object>> getAllChangedSinceImport() {
         return modificationRepositoryJpa.findByCommentNotLike(IMPORT_PREFIX + "%").stream()
-            .map(m -> m.getElement().toMap()).distinct().collect(Collectors.toList());
+            .map(m -> m.getElement().toMap(null, null, ownerNames::fullName)).distinct().collect(Collectors.toList());
     }
 
     @Override
@@ -399,10 +641,15 @@ public class ElementServiceJpa implements ElementService {
 
     @Override
     public Map<String, Object> getElement(Long id, List<String> pnames) {
-        final Element e = elementRepository.findById(id).orElse(null);
-        if (e != null)
-            return e.toMap(pnames);
-        return null;
+        return elementMaps.get(id, pnames, this::findVersions, () -> {
+            final Element e = elementRepository.findById(id).orElse(null);
+            if (e != null) {
+                elementRepository.fetchProperties(List.of(e), pnames);
+                return new ElementMapCache.Versioned(e.toMap(pnames, null, ownerNames::fullName),
+                        versionsOf(e, ElementMapCache.withReferences(pnames)));
+            }
+            return null;
+        });
     }
 
     public List<Group> getAllGroups() {
@@ -414,8 +661,10 @@ public class ElementServiceJpa implements ElementService {
     public void deleteElement(Long id) {
         final Element e = elementRepository.findById(id).orElse(null);
         logger.debug("Delete Element with id={}: {}", id, e);
+        elementMaps.evict(id);
         if (e != null) {
             try {
+                currentValueListRepository.deleteByElementId(id);
                 elementRepository.deleteById(id);
             } catch (Exception ex) {
                 logger.error(ex.getMessage());
@@ -8,6 +8,7 @@ import ch.semafor.gendas.dao.mongo.OwnerRepositoryMongo;
 import ch.semafor.gendas.exceptions.CoreException;
 import ch.semafor.gendas.exceptions.UsernameNotFoundException;
 import ch.semafor.gendas.model.*;
+import ch.semafor.gendas.search.SearchAfter;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -24,7 +25,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Transactional(readOnly = true)
 @Profile("mongo")
@@ -40,12 +43,20 @@ public class ElementServiceMongo implements ElementService {
     private ElementTypeRepositoryMongo elementTypeRepository;
     @Autowired
     private ModificationRepositoryMongo modificationDao;
+    @Autowired
+    private ElementRegistryService elementRegistry;
+    @Autowired
+    private ElementTypeRegistry elementTypeRegistry;
+    @Autowired
+    private ElementMapCache elementMaps;
 
     private ElementType getElementType(final String name, final String idName,
                                        final String idVersion) {
         if (elementTypeRepository.existsByName(name)) {
-            logger.debug("{} created? {}", name, getElementType(name).isCreated());
-            return getElementType(name);
+            // not from the registry, the type is modified
+            final ElementType et = elementTypeRepository.findByName(name);
+            logger.debug("{} created? {}", name, et.isCreated());
+            return et;
         }
         ElementType et = elementTypes.get(name);
         if (et != null) {
@@ -110,7 +121,9 @@ public class ElementServiceMongo implements ElementService {
                                          String idName, String idVersion) {
         logger.debug("=== Create Element Type {} ===", typename);
         ElementType et = create(typename, typedef, idName, idVersion);
-        return elementTypeRepository.save(et);
+        et = elementTypeRepository.save(et);
+        elementTypeRegistry.invalidate();
+        return et;
     }
 
     @Override
@@ -121,6 +134,7 @@ public class ElementServiceMongo implements ElementService {
         if (diff != null && diff.isEmpty())
             return map;
         Map<String, Object> newMap = elementRepository.save(type, map);
+        elementMaps.evict((Long) newMap.get("id"));
         MapModification m = new MapModification((Long) newMap.get("id"),
                 ownerRepository.findByUsername(username), changeComment, diff);
         modificationDao.save(m);
@@ -144,6 +158,34 @@ public class ElementServiceMongo implements ElementService {
                                                 final Map<String, Map<String, Object>> childargs, int page, int pagesize,
                                                 Map<String, Integer> sortmap, boolean latestRevision, Date changedSince) {
 
+        Pageable pageable = pageable(searchargs, page, pagesize, sortmap);
+        List<Map<String, Object>> r =
+                elementRepository.find(type, owner, pnames, searchargs, childargs, pageable);
+        return r;
+    }
+
+    @Override
+    public int streamByType(final String type, final String owner,
+                            final List<String> pnames, final Map<String, Object> searchargs,
+                            final Map<String, Map<String, Object>> childargs, int page, int pagesize,
+                            Map<String, Integer> sortmap, boolean latestRevision, Date changedSince,
+                            Consumer<Map<String, Object>> consumer) {
+        Pageable pageable = pageable(searchargs, page, pagesize, sortmap);
+        int n = 0;
+        try (Stream<Map<String, Object>> maps =
+                     elementRepository.stream(type, owner, pnames, searchargs, childargs, pageable)) {
+            for (Iterator<Map<String, Object>> it = maps.iterator(); it.hasNext(); n++) {
+                consumer.accept(it.next());
+            }
+        }
+        return n;
+    }
+
+    /**
+     * page request of a search, removes the ignorecase option from searchargs
+     */
+    private Pageable pageable(final Map<String, Object> searchargs, int page, int pagesize,
+                              Map<String, Integer> sortmap) {
         boolean ignorecase = false;
         if (searchargs != null && searchargs.containsKey("ignorecase")) {
             ignorecase = (Boolean) searchargs.get("ignorecase");
@@ -154,24 +196,40 @@ public class ElementServiceMongo implements ElementService {
             pagesize = Integer.MAX_VALUE;
             page = 0;
         }
-        Pageable pageable = null;
+        if (page < 0) {
+            page = 0;
+        }
+        // a cursor pages by _id in its direction, otherwise the newest come first
+        SearchAfter after = searchargs != null && searchargs.get(SearchAfter.KEY) instanceof SearchAfter a ? a : null;
+        Sort.Direction idDirection = after != null && after.isAscending() ? Sort.Direction.ASC : Sort.Direction.DESC;
+        List<Sort.Order> orders = new ArrayList<Sort.Order>();
+        boolean byId = false;
         if (sortmap != null) {
-            List<Sort.Order> orders = new ArrayList<Sort.Order>();
             for (String key : sortmap.keySet()) {
                 Sort.Direction d = sortmap.get(key) > 0 ? Sort.Direction.ASC : Sort.Direction.DESC;
-                Sort.Order order = new Sort.Order(d, key);
+                String field = key.equals("id") ? "_id" : key; // id of an element is stored as _id
+                byId |= field.equals("_id");
+                Sort.Order order = new Sort.Order(d, field);
                 if (ignorecase) {
-                    order.ignoreCase();
+                    order = order.ignoreCase();
                 }
                 orders.add(order);
             }
-            pageable = PageRequest.of(page, pagesize, Sort.by(orders));
-        } else {
-            pageable = PageRequest.of(page, pagesize, Sort.by(Sort.Direction.DESC, "_id"));
         }
-        List<Map<String, Object>> r =
-                elementRepository.find(type, owner, pnames, searchargs, childargs, pageable);
-        return r;
+        if (!byId) {
+            // unique order for stable pages
+            orders.add(new Sort.Order(idDirection, "_id"));
+        }
+        Pageable pageable = PageRequest.of(page, pagesize, Sort.by(orders));
+        return pageable;
+    }
+
+    @Override
+    public long countByType(final String type, final String owner,
+                            final Map<String, Object> searchargs,
+                            final Map<String, Map<String, Object>> childargs,
+                            boolean latestRevision, Date changedSince) {
+        return elementRepository.count(type, owner, Maps.countArgs(searchargs), childargs);
     }
 
     @Override
@@ -219,12 +277,33 @@ public class ElementServiceMongo implements ElementService {
         if (!withDbInfos){
             pnames = new ArrayList<>();
         }
-        Map<String, Object> m = elementRepository.findById(id, pnames, type);
+        return findById(id, pnames, type);
+    }
 
-        if (m.get("id") != null)
-            return m;
-        // not found
-        return null;
+    /**
+     * find element map in cache or repository,
+     * referenced elements are embedded in the document of the element
+     */
+    private Map<String, Object> findById(Long id, List<String> pnames, String type) {
+        return elementMaps.get(id, pnames, ids -> findVersions(ids, type), () -> {
+            Map<String, Object> m = elementRepository.findById(id, pnames, type);
+            if (m == null || m.get("id") == null)
+                return null; // not found
+            Map<Long, Long> versions = new HashMap<Long, Long>();
+            versions.put(id, m.get("version") instanceof Number n ? n.longValue() : null);
+            return new ElementMapCache.Versioned(m, versions);
+        });
+    }
+
+    private Map<Long, Long> findVersions(Collection<Long> ids, String type) {
+        Map<Long, Long> versions = new HashMap<Long, Long>();
+        for (Long id : ids) {
+            Long version = elementRepository.findVersion(id, type);
+            if (version != null) {
+                versions.put(id, version);
+            }
+        }
+        return versions;
     }
 
     @Override
@@ -254,6 +333,7 @@ public class ElementServiceMongo implements ElementService {
             element.remove("_type");
             changes++;
         }
+        elementMaps.evictAll();
         return changes;
     }
 
@@ -279,7 +359,7 @@ public class ElementServiceMongo implements ElementService {
     @Override
     public ElementType getElementType(String type) {
         try {
-            return elementTypeRepository.findByName(type);
+            return elementTypeRegistry.get(type, elementTypeRepository::findAll, elementTypeRepository::existsByName);
         } catch (IncorrectResultSizeDataAccessException ex) {
             throw new DataIntegrityViolationException("Non Unique Element Type '" + type + "'");
         }
@@ -340,11 +420,7 @@ public class ElementServiceMongo implements ElementService {
             return null;
         }
         logger.debug("found type {}", type);
-        Map<String, Object> m = elementRepository.findById(id, pnames, type);
-        if (m.get("id") != null)
-            return m;
-        // not found
-        return null;
+        return findById(id, pnames, type);
     }
 
     @Override
@@ -356,6 +432,8 @@ public class ElementServiceMongo implements ElementService {
         }
         modificationDao.deleteAllOfElement(id);
         elementRepository.deleteElement(id, type);
+        elementRegistry.remove(id);
+        elementMaps.evict(id);
     }
 
     public List<Group> getAllGroups() {
@@ -369,11 +447,20 @@ public class ElementServiceMongo implements ElementService {
      * @return type of the element
      */
     private String findTypeOfElement(Long id) {
-        // must loop over all element types (collections)
+        String registered = elementRegistry.findType(id);
+        if (registered != null) {
+            if (elementRepository.exists(id, registered)) {
+                return registered;
+            }
+            // removed without deleteElement (shard import, dropped collection)
+            logger.debug("element {} not in registered type {}", id, registered);
+            elementRegistry.remove(id);
+        }
+        // not registered: must loop over all element types (collections)
         for (String type : elementTypeRepository.findAllNames()) {
             logger.debug("find by id {} type {}", id, type);
-            Map<String, Object> e = elementRepository.findById(id, type);
-            if (e.get("id") != null) {
+            if (elementRepository.exists(id, type)) {
+                elementRegistry.register(id, type);
                 return type;
             }
         }
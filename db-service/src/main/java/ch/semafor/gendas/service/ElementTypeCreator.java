@@ -105,6 +105,23 @@ public class ElementTypeCreator extends Creator {
             final String name,
             String type,
             String unit) {
+        return createPropertyType(name, type, unit, false);
+    }
+
+    /**
+     * create property type
+     *
+     * @param name of property type
+     * @param type
+     * @param unit
+     * @param packed store values as a single blob (existing types are switched on only)
+     * @return created property type
+     */
+    protected PropertyType createPropertyType(
+            final String name,
+            String type,
+            String unit,
+            boolean packed) {
         PropertyType p;
         logger.debug("check name '{}' type '{}' unit '{}'",
                 name, type, unit);
@@ -112,6 +129,11 @@ public class ElementTypeCreator extends Creator {
         if (p != null) {
             if ((unit == null && (p.getUnit()==null || p.getUnit().isEmpty())
             || p.getUnit().equals(unit))){ // note: liquibase will not create null units
+                if (packed && !p.isPacked()) {
+                    logger.info("property type {} switched to packed storage", name);
+                    p.setPacked(true);
+                    return propertyTypeRepositoryJpa.save(p);
+                }
                 return p;
             }
             throw new ElementTypeCreationException("Conflicting units for " + name +": "
@@ -122,6 +144,7 @@ public class ElementTypeCreator extends Creator {
         } else {
             p = new PropertyType(name, PropertyType.Type.get(type), unit);
         }
+        p.setPacked(packed);
         logger.debug("saving property type name: {} type: {}", p.getName(), type);
         return propertyTypeRepositoryJpa.save(p);
     }
@@ -151,8 +174,9 @@ public class ElementTypeCreator extends Creator {
                     String propname = (String) propdef.get("name");
                     String unit = (String) propdef.get("unit");
                     String type = (String) propdef.get("type");
+                    boolean packed = Boolean.TRUE.equals(propdef.get("packed"));
                     logger.debug("Type {} add property {}", elementType.getName(), propname);
-                    PropertyType propType = this.createPropertyType(propname, type, unit);
+                    PropertyType propType = this.createPropertyType(propname, type, unit, packed);
                     elementType.add(propType);
                 } else {
                     logger.debug("Type {} add Reference {}", elementType.getName(), propdef.get("name"));
@@ -0,0 +1,118 @@
+package ch.semafor.gendas.service;
+
+import ch.semafor.gendas.model.ElementType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * read mostly registry of all element types by name.
+ * The types of a snapshot are completely loaded and must not be modified,
+ * a new snapshot is loaded after element types were created.
+ */
+@Component
+public class ElementTypeRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ElementTypeRegistry.class);
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>();
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * @param name   of element type
+     * @param loader of all element types with initialized property types and references,
+     *               called if there is no current snapshot
+     * @param exists checks unknown names, the snapshot is reloaded if the type
+     *               was created meanwhile (by another instance)
+     * @return element type or null if not found
+     */
+    public ElementType get(String name, Supplier<Collection<ElementType>> loader, Predicate<String> exists) {
+        Snapshot s = snapshot.get();
+        if (s == null) {
+            s = load(loader);
+        }
+        if (name == null) {
+            return null;
+        }
+        ElementType t = s.types.get(name);
+        if (t == null && exists.test(name)) {
+            t = load(loader).types.get(name);
+        }
+        return t;
+    }
+
+    /**
+     * @param name of element type
+     * @return element type of the current snapshot or null if not loaded or not found
+     */
+    public ElementType find(String name) {
+        Snapshot s = snapshot.get();
+        return s != null && name != null ? s.types.get(name) : null;
+    }
+
+    /**
+     * @return version of the current snapshot or 0 if not loaded
+     */
+    public long getVersion() {
+        Snapshot s = snapshot.get();
+        return s != null ? s.version : 0;
+    }
+
+    /**
+     * discard the current snapshot after the current transaction completed
+     * (immediately if there is none)
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    snapshot.set(null);
+                }
+            });
+        }
+        snapshot.set(null);
+    }
+
+    private Snapshot load(Supplier<Collection<ElementType>> loader) {
+        final Map<String, ElementType> types = new HashMap<String, ElementType>();
+        for (ElementType t : loader.get()) {
+            t.getPropertyType(null); // build index before sharing
+            types.put(t.getName(), t);
+        }
+        final Snapshot s = new Snapshot(versions.incrementAndGet(), Map.copyOf(types));
+        snapshot.set(s);
+        logger.debug("loaded {} element types, version {}", types.size(), s.version);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // types read in a transaction that is rolled back may not exist
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        snapshot.compareAndSet(s, null);
+                    }
+                }
+            });
+        }
+        return s;
+    }
+
+    private static class Snapshot {
+        final long version;
+        final Map<String, ElementType> types;
+
+        Snapshot(long version, Map<String, ElementType> types) {
+            this.version = version;
+            this.types = types;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ch.semafor.gendas.service;
 
 import ch.semafor.gendas.exceptions.CoreException;
+import ch.semafor.gendas.search.SearchAfter;
 import com.google.common.collect.MapDifference.ValueDifference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +11,19 @@ import java.util.*;
 public class Maps {
     private static final Logger logger = LoggerFactory.getLogger(Maps.class);
 
+    /**
+     * search arguments of a count: without sort option and cursor
+     */
+    static public Map<String, Object> countArgs(final Map<String, Object> searchargs) {
+        if (searchargs == null) {
+            return null;
+        }
+        Map<String, Object> args = new HashMap<String, Object>(searchargs);
+        args.remove("ignorecase");
+        args.remove(SearchAfter.KEY);
+        return args;
+    }
+
     static public Map<String, Object> diff(final Map<String, Object> left,
                                            final Map<String, Object> right) {
         // null -> empty Map
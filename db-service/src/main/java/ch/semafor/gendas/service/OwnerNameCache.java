@@ -0,0 +1,98 @@
+package ch.semafor.gendas.service;
+
+import ch.semafor.gendas.dao.OwnerRepository;
+import ch.semafor.gendas.model.Owner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * bounded cache of owner full names by username
+ * used to fill the ownername of element maps
+ */
+@Component
+public class OwnerNameCache {
+    private static final Logger logger = LoggerFactory.getLogger(OwnerNameCache.class);
+
+    private final OwnerRepository ownerRepository;
+    private final Cache<String, String> names;
+
+    public OwnerNameCache(OwnerRepository ownerRepository,
+                          ObjectProvider<MeterRegistry> meterRegistry,
+                          @Value("${app.ownerNameCacheSize:1000}") long size,
+                          @Value("${app.ownerNameCacheTtl:10m}") Duration ttl) {
+        this.ownerRepository = ownerRepository;
+        this.names = CacheBuilder.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(r -> GuavaCacheMetrics.monitor(r, names, "ownernames"));
+    }
+
+    /**
+     * @param username of owner
+     * @return full name of owner or null if not found
+     */
+    public String fullName(String username) {
+        if (username == null) {
+            return null;
+        }
+        String name = names.getIfPresent(username);
+        if (name == null) {
+            Owner owner = ownerRepository.findByUsername(username);
+            if (owner == null) {
+                logger.warn("owner {} not found", username);
+                return null;
+            }
+            name = owner.getFullName();
+            names.put(username, name);
+        }
+        return name;
+    }
+
+    /**
+     * full name of owner without initializing lazy references
+     *
+     * @param owner of element
+     * @return full name of owner
+     */
+    public String fullName(Owner owner) {
+        return owner != null ? fullName(owner.getUsername()) : null;
+    }
+
+    /**
+     * evict now and again after the transaction completed (a concurrent read
+     * may have cached the name that was current before the commit)
+     */
+    public void evict(String username) {
+        names.invalidate(username);
+        afterCompletion(() -> names.invalidate(username));
+    }
+
+    public void evictAll() {
+        names.invalidateAll();
+        afterCompletion(names::invalidateAll);
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+}
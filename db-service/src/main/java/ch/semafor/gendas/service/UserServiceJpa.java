@@ -3,6 +3,7 @@ package ch.semafor.gendas.service;
 import ch.semafor.gendas.dao.GroupRepository;
 import ch.semafor.gendas.dao.OwnerRepository;
 import ch.semafor.gendas.dao.jpa.OwnerRepositoryJpa;
+import ch.semafor.gendas.events.OwnerSavedEvent;
 import ch.semafor.gendas.exceptions.GroupExistsException;
 import ch.semafor.gendas.exceptions.UsernameNotFoundException;
 import ch.semafor.gendas.model.Group;
@@ -10,6 +11,7 @@ import ch.semafor.gendas.model.Owner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +35,15 @@ public class UserServiceJpa implements UserService {
     @Autowired
     private ElementService elementService;
 
+    @Autowired
+    private OwnerNameCache ownerNames;
+
+    @Autowired
+    private ElementMapCache elementMaps;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
     @Override
     @Transactional(readOnly = true, noRollbackFor = UsernameNotFoundException.class)
     public Owner findOwnerByUsername(String username) throws UsernameNotFoundException {
@@ -46,6 +57,9 @@ public class UserServiceJpa implements UserService {
     @Override
     @Transactional
     public Owner saveOwner(Owner owner) {
+        ownerNames.evict(owner.getUsername());
+        elementMaps.evictOwner(owner.getUsername());
+        events.publishEvent(new OwnerSavedEvent(owner.getUsername()));
         return ownerRepository.save(owner);
     }
 
@@ -96,6 +110,7 @@ public class UserServiceJpa implements UserService {
 
         changes += elementService.changeGroupInElements(oldGroup, newGroup);
 
+        ownerNames.evictAll();
         logger.debug("Changed {} objects", changes);
         return changes;
     }
@@ -2,6 +2,7 @@ package ch.semafor.gendas.service;
 
 import ch.semafor.gendas.dao.OwnerRepository;
 import ch.semafor.gendas.dao.mongo.custom.GroupRepositoryMongoCustom;
+import ch.semafor.gendas.events.OwnerSavedEvent;
 import ch.semafor.gendas.exceptions.GroupExistsException;
 import ch.semafor.gendas.exceptions.UsernameNotFoundException;
 import ch.semafor.gendas.model.Group;
@@ -9,6 +10,7 @@ import ch.semafor.gendas.model.Owner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,6 +36,15 @@ public class UserServiceMongo implements UserService {
     @Autowired
     private ElementService elementService;
 
+    @Autowired
+    private OwnerNameCache ownerNames;
+
+    @Autowired
+    private ElementMapCache elementMaps;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
     @Override
     @Transactional(readOnly = true, noRollbackFor = UsernameNotFoundException.class)
     public Owner findOwnerByUsername(String username) throws UsernameNotFoundException {
@@ -47,6 +58,9 @@ public class UserServiceMongo implements UserService {
     @Override
     @Transactional
     public Owner saveOwner(Owner owner) {
+        ownerNames.evict(owner.getUsername());
+        elementMaps.evictOwner(owner.getUsername());
+        events.publishEvent(new OwnerSavedEvent(owner.getUsername()));
         return ownerRepository.save(owner);
     }
 
@@ -100,6 +114,7 @@ public class UserServiceMongo implements UserService {
 
         changes += elementService.changeGroupInElements(oldGroup, newGroup);
 
+        ownerNames.evictAll();
         logger.debug("Changed {} objects", changes);
         return changes;
     }
@@ -10,6 +10,7 @@ import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.security.SecurityScheme;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +27,16 @@ public class AppProperties {
   private String oauthDefaultGroup;
   private Boolean restrictUserList = false;
   private Boolean uniqueVariantName = false; // for all projects
+  private Duration ownerCacheTtl = Duration.ofMinutes(5);
+  private Integer ownerCacheSize = 1000;
+  private Duration countCacheTtl = Duration.ZERO; // no caching of total counts (else stale up to ttl)
+  private Integer countCacheSize = 1000;
+  private Integer maxListSize = 0; // no limit of unpaged lists
+  private Integer maxStreamSize = 100000; // 0: no limit of streamed lists
+  private Long jsonCacheSize = 0L; // bytes of serialized json, no caching
+  private Duration jsonCacheTtl = Duration.ofMinutes(30);
+  private Boolean jsonCacheGzip = true;
+  private Integer jsonCacheOffHeapSize = 64 * 1024; // larger entries in direct buffers
 
   public String getOauthDefaultGroup() {
     return oauthDefaultGroup;
@@ -63,6 +74,66 @@ public class AppProperties {
   public DashboardProperties getDashboard() {
     return dashboard;
   }
+  public Duration getOwnerCacheTtl() {
+    return ownerCacheTtl;
+  }
+  public void setOwnerCacheTtl(Duration ownerCacheTtl) {
+    this.ownerCacheTtl = ownerCacheTtl;
+  }
+  public Integer getOwnerCacheSize() {
+    return ownerCacheSize;
+  }
+  public void setOwnerCacheSize(Integer ownerCacheSize) {
+    this.ownerCacheSize = ownerCacheSize;
+  }
+  public Duration getCountCacheTtl() {
+    return countCacheTtl;
+  }
+  public void setCountCacheTtl(Duration countCacheTtl) {
+    this.countCacheTtl = countCacheTtl;
+  }
+  public Integer getCountCacheSize() {
+    return countCacheSize;
+  }
+  public void setCountCacheSize(Integer countCacheSize) {
+    this.countCacheSize = countCacheSize;
+  }
+  public Integer getMaxListSize() {
+    return maxListSize;
+  }
+  public void setMaxListSize(Integer maxListSize) {
+    this.maxListSize = maxListSize;
+  }
+  public Integer getMaxStreamSize() {
+    return maxStreamSize;
+  }
+  public void setMaxStreamSize(Integer maxStreamSize) {
+    this.maxStreamSize = maxStreamSize;
+  }
+  public Long getJsonCacheSize() {
+    return jsonCacheSize;
+  }
+  public void setJsonCacheSize(Long jsonCacheSize) {
+    this.jsonCacheSize = jsonCacheSize;
+  }
+  public Duration getJsonCacheTtl() {
+    return jsonCacheTtl;
+  }
+  public void setJsonCacheTtl(Duration jsonCacheTtl) {
+    this.jsonCacheTtl = jsonCacheTtl;
+  }
+  public Boolean getJsonCacheGzip() {
+    return jsonCacheGzip;
+  }
+  public void setJsonCacheGzip(Boolean jsonCacheGzip) {
+    this.jsonCacheGzip = jsonCacheGzip;
+  }
+  public Integer getJsonCacheOffHeapSize() {
+    return jsonCacheOffHeapSize;
+  }
+  public void setJsonCacheOffHeapSize(Integer jsonCacheOffHeapSize) {
+    this.jsonCacheOffHeapSize = jsonCacheOffHeapSize;
+  }
   public Boolean isUniqueVariantName() {return uniqueVariantName;}
   public void setUniqueVariantName(Boolean uniqueVariantName) {this.uniqueVariantName = uniqueVariantName;}
 
@@ -4,11 +4,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import ch.semafor.intens.ws.model.ApprovalState;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
 @Component
 public class ComponentProperties {
   private static final Logger logger = LoggerFactory.getLogger(ComponentProperties.class);
@@ -49,6 +56,28 @@ public class ComponentProperties {
     return isTrue(key, true);
   }
 
+  /**
+   * names of all keys below prefix having value 'true' or 'T'
+   * eg. prefix component.approval.group returns the visible approval codes.
+   * Relaxed names are bound too: COMPONENT_APPROVAL_GROUP_X=true returns x
+   * (environment variables have no case, codes are matched ignoring case)
+   */
+  public Set<String> getTrueKeys(String prefix) {
+    Set<String> keys = new TreeSet<>();
+    if (!(env instanceof ConfigurableEnvironment)) {
+      return keys;
+    }
+    Map<String, String> values = Binder.get(env)
+        .bind(prefix, Bindable.mapOf(String.class, String.class))
+        .orElse(Map.of());
+    for (Map.Entry<String, String> e : values.entrySet()) {
+      if (e.getKey().indexOf('.') < 0 && ("T".equals(e.getValue()) || "true".equals(e.getValue()))) {
+        keys.add(e.getKey());
+      }
+    }
+    return keys;
+  }
+
   private Boolean isTrue(String key, Boolean defaultValue) {
     // return true if key exists and has value 'true' or 'T'
     // return false if key exists and has value other than 'true' or 'T'
@@ -9,6 +9,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
       "_sort": "(attr0:1,attr1:-1...)",
       "_page": <n>,
       "_pageSize": <pageSize>,
+      "_flat": true,
+      "_after": "<cursor of X-Next-Cursor header>",
+      "_count": true,
+      "_stream": true,
       "id": "id or {id1,id2...}",
       "name": "string",
       "maxAge": years,
@@ -24,6 +28,10 @@ public class ExQueryParams {
   public String _sort;
   public int _page;
   public int _pageSize;
+  public boolean _flat;
+  public String _after;
+  public boolean _count;
+  public boolean _stream;
   public String id;
   public String name;
   public int maxAge;
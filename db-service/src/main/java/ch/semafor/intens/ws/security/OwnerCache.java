@@ -0,0 +1,132 @@
+package ch.semafor.intens.ws.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import ch.semafor.gendas.events.OwnerSavedEvent;
+import ch.semafor.gendas.model.Group;
+import ch.semafor.gendas.model.Owner;
+import ch.semafor.gendas.model.Role;
+import ch.semafor.intens.ws.config.AppProperties;
+
+/**
+ * cache of owners resolved from oauth2 principals
+ * keyed by token subject and a hash of the claims the owner is built from.
+ * Cached owners are shared by concurrent requests, each get returns a copy.
+ */
+@Component
+public class OwnerCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(OwnerCache.class);
+
+  private final Cache<String, Owner> owners;
+
+  public OwnerCache(AppProperties properties) {
+    this.owners = CacheBuilder.newBuilder()
+        .maximumSize(properties.getOwnerCacheSize())
+        .expireAfterWrite(properties.getOwnerCacheTtl().toMillis(), TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  /**
+   * build cache key
+   * @param subject username of the token
+   * @param claims values the owner is built from (names, groups, authorities)
+   * @return key
+   */
+  public static String key(String subject, Object... claims) {
+    StringBuilder sb = new StringBuilder();
+    for (Object c : claims) {
+      // authorities and groups are compared independent of their order
+      sb.append(c instanceof Collection<?> l ? new TreeSet<>(l.stream().map(String::valueOf).toList()) : c);
+      sb.append('\u0000');
+    }
+    return subject + ':' + Hashing.murmur3_128().hashString(sb, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * get owner from cache or resolve and cache it
+   * @param key built by {@link #key(String, Object...)}
+   * @param resolver called on cache miss
+   * @return copy of owner
+   */
+  public Owner get(String key, Supplier<Owner> resolver) {
+    try {
+      return copy(owners.get(key, () -> {
+        logger.debug("resolve owner {}", key);
+        return Objects.requireNonNull(resolver.get());
+      }));
+    } catch (UncheckedExecutionException | ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException rex) {
+        throw rex;
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  /**
+   * remove all cached entries of user
+   * @param username name of owner
+   */
+  public void evict(String username) {
+    String prefix = username + ':';
+    owners.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+  }
+
+  /**
+   * evict saved owner now and after the transaction completed
+   * (a concurrent request may resolve the owner before the commit)
+   */
+  @EventListener
+  public void onOwnerSaved(OwnerSavedEvent event) {
+    evict(event.username());
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          evict(event.username());
+        }
+      });
+    }
+  }
+
+  public void evictAll() {
+    owners.invalidateAll();
+  }
+
+  private static Owner copy(Owner o) {
+    Owner c = new Owner(o.getUsername());
+    c.setPassword(o.getPassword());
+    c.setFirstName(o.getFirstName());
+    c.setLastName(o.getLastName());
+    c.setEnabled(o.isEnabled());
+    c.setTotpSecret(o.getTotpSecret());
+    c.setTotpEnabled(o.isTotpEnabled());
+    c.setRoles(new HashSet<Role>(o.getRoles()));
+    c.setGroups(new HashSet<Group>(o.getGroups()));
+    c.setActiveGroup(o.getActiveGroup());
+    return c;
+  }
+
+  public long size() {
+    return owners.size();
+  }
+}
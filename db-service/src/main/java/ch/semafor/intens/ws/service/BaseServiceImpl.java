@@ -1,5 +1,8 @@
 package ch.semafor.intens.ws.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.text.Format;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -11,9 +14,12 @@ import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.kie.api.runtime.StatelessKieSession;
@@ -29,6 +35,10 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import tools.jackson.databind.json.JsonMapper;
 
 import ch.semafor.gendas.exceptions.UsernameNotFoundException;
 import ch.semafor.gendas.model.ElementType;
@@ -38,6 +48,7 @@ import ch.semafor.gendas.model.Owner;
 import ch.semafor.gendas.model.PropertyType;
 import ch.semafor.gendas.model.PropertyType.Type;
 import ch.semafor.gendas.model.Role;
+import ch.semafor.gendas.search.SearchAfter;
 import ch.semafor.gendas.search.SearchEq;
 import ch.semafor.gendas.search.SearchGt;
 import ch.semafor.gendas.search.SearchIn;
@@ -48,6 +59,7 @@ import ch.semafor.intens.ws.config.ComponentProperties;
 import ch.semafor.intens.ws.model.ApprovalState;
 import ch.semafor.intens.ws.model.BaseEntity;
 import ch.semafor.intens.ws.model.User;
+import ch.semafor.intens.ws.security.OwnerCache;
 import ch.semafor.intens.ws.security.SecurityUtils;
 import ch.semafor.intens.ws.utils.DateTimeFormatter;
 import ch.semafor.intens.ws.utils.IntensWsException;
@@ -58,6 +70,9 @@ public class BaseServiceImpl {
 
     static public final String PROJECT_TYPE = "Project";
     static public final String VARIANT_TYPE = "Variant";
+    static public final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static public final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    static public final String NDJSON = "application/x-ndjson";
     private static final Logger logger = LoggerFactory.getLogger(BaseServiceImpl.class);
     @Autowired
     ElementService elementService;
@@ -67,6 +82,14 @@ public class BaseServiceImpl {
     AppProperties properties;
     @Autowired
     private Environment environment;
+    @Autowired
+    OwnerCache ownerCache;
+    @Autowired
+    CountCache countCache;
+    @Autowired
+    JsonCache jsonCache;
+    @Autowired
+    JsonMapper jsonMapper;
 
 
     @Autowired
@@ -223,12 +246,36 @@ public class BaseServiceImpl {
     }
 
 
+    /**
+     * packed value lists have no value rows that could be searched or sorted
+     */
+    private static void checkNotPacked(PropertyType p, String key, String what) {
+        if (p != null && p.isPacked()) {
+            throw new IntensWsException("Cannot " + what + " by packed property " + key,
+                    HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * @param type of elements (sort keys that are packed properties are rejected)
+     */
+    protected Map<String, Integer> extractSort(String type, Map<String, String> queryparams) {
+        Map<String, Integer> sortmap = extractSort(queryparams);
+        ElementType t = sortmap != null ? elementService.getElementType(type) : null;
+        if (t != null) {
+            for (String key : sortmap.keySet()) {
+                checkNotPacked(t.getPropertyType(key), key, "sort");
+            }
+        }
+        return sortmap;
+    }
+
     protected Map<String, Integer> extractSort(Map<String, String> queryparams) {
         Map<String, Integer> sortmap = null;
         // example _sort=name:1
         if (queryparams.containsKey("_sort")) {
             String sortpars = queryparams.get("_sort");
-            sortmap = new HashMap<String, Integer>();
+            sortmap = new LinkedHashMap<String, Integer>();
             if (sortpars.startsWith("(") && sortpars.endsWith(")")) {
                 for (String kvp : sortpars.substring(1, sortpars.length() - 1).split(",")) {
                     String[] k = kvp.split(":");
@@ -267,6 +314,119 @@ public class BaseServiceImpl {
         return pagesize;
     }
 
+    /**
+     * extract keyset cursor of next page (only for pages ordered by id)
+     *
+     * @param queryparams request parameters
+     * @param sortmap     sort order
+     * @return cursor or null
+     */
+    protected SearchAfter extractAfter(Map<String, String> queryparams, Map<String, Integer> sortmap) {
+        if (!queryparams.containsKey(SearchAfter.KEY)) {
+            return null;
+        }
+        String token = queryparams.remove(SearchAfter.KEY);
+        if (!isIdOrder(sortmap)) {
+            throw new IntensWsException("_after requires _sort by id", HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return SearchAfter.of(token, isAscending(sortmap));
+        } catch (IllegalArgumentException ex) {
+            throw new IntensWsException("Invalid cursor '" + token + "'", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * set cursor header of next page if the page is full
+     *
+     * @param l        elements of page
+     * @param pagesize size of page
+     * @param sortmap  sort order
+     */
+    protected void setNextCursor(List<Map<String, Object>> l, int pagesize, Map<String, Integer> sortmap) {
+        if (pagesize < 1 || l.size() < pagesize || !isIdOrder(sortmap)) {
+            return;
+        }
+        if (l.get(l.size() - 1).get("id") instanceof Number id) {
+            setHeader(NEXT_CURSOR_HEADER, SearchAfter.token(id.longValue()));
+        }
+    }
+
+    protected boolean extractCount(Map<String, String> queryparams) {
+        boolean count = false;
+        if (queryparams.containsKey("_count")) {
+            count = queryparams.get("_count").isEmpty() || Boolean.parseBoolean(queryparams.get("_count"));
+            queryparams.remove("_count");
+        }
+        return count;
+    }
+
+    /**
+     * set total count header of all pages
+     */
+    protected void setTotalCount(String type, String owner, Map<String, Object> search,
+                                 Map<String, Map<String, Object>> childsearch,
+                                 boolean latestRevision, Date changedSince) {
+        long count = countCache.get(type, owner, search, childsearch, changedSince,
+                () -> elementService.countByType(type, owner, search, childsearch, latestRevision, changedSince));
+        setHeader(TOTAL_COUNT_HEADER, String.valueOf(count));
+    }
+
+    private void setHeader(String name, String value) {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attrs
+                && attrs.getResponse() != null) {
+            attrs.getResponse().setHeader(name, value);
+        }
+    }
+
+    private static boolean isIdOrder(Map<String, Integer> sortmap) {
+        return sortmap == null || sortmap.isEmpty()
+                || (sortmap.size() == 1 && sortmap.containsKey("id"));
+    }
+
+    private static boolean isAscending(Map<String, Integer> sortmap) {
+        return sortmap != null && Integer.valueOf(1).equals(sortmap.get("id"));
+    }
+
+    /**
+     * limit size of pages and of unpaged requests
+     *
+     * @param pagesize requested size (all if less than 1)
+     * @param stream   true if the elements are streamed
+     * @return page size
+     */
+    protected int limitPageSize(int pagesize, boolean stream) {
+        int max = stream ? properties.getMaxStreamSize() : properties.getMaxListSize();
+        if (max > 0 && (pagesize < 1 || pagesize > max)) {
+            logger.warn("page size {} limited to {}", pagesize, max);
+            return max;
+        }
+        return pagesize;
+    }
+
+    /**
+     * writer of maps as newline delimited json
+     */
+    protected Consumer<Map<String, Object>> ndjson(OutputStream out) {
+        return m -> {
+            try {
+                out.write(jsonMapper.writeValueAsBytes(m));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        };
+    }
+
+    protected boolean extractFlat(Map<String, String> queryparams) {
+        boolean flat = false;
+        if (queryparams.containsKey("_flat")) {
+            flat = queryparams.get("_flat").isEmpty() || Boolean.parseBoolean(queryparams.get("_flat"));
+            queryparams.remove("_flat");
+        }
+        return flat;
+    }
+
     private void fixDate(List<Map<String, Object>> props, String type) {
         for (Object property : props) {
             if (property instanceof List) {
@@ -422,54 +582,16 @@ public class BaseServiceImpl {
         if( principalAttrs.containsKey(key)){
             Collection<GrantedAuthority> authorities = (Collection<GrantedAuthority>)
                 SecurityContextHolder.getContext().getAuthentication().getAuthorities();
-            Owner currentUser = new Owner((String) principalAttrs.get(properties.getOauthUserField()));
-            logger.debug("Current user: {}", currentUser.getUsername());
-            logger.debug("Authorities: {}", authorities.toString());
-            currentUser.setFirstName((String) principalAttrs.get("given_name"));
-            currentUser.setLastName((String) principalAttrs.get("family_name"));
-            currentUser.setRoles(authorities.stream().map(GrantedAuthority::getAuthority).map(Role::new).collect(Collectors.toSet()));
-            if (properties.getUseOauthGroups()) {
-                if(principalAttrs.containsKey("groups")) {
-                    for (String name : (List<String>) principalAttrs.get("groups")) {
-                        logger.debug("Group {}", name);
-                        // must remove first char as it is "/"
-                        currentUser.addGroup(new Group(name.substring(1, name.length())));
-                    }
-                }
-                if(principalAttrs.containsKey("active_group")) {
-                    String name = (String) principalAttrs.get("active_group");
-                    currentUser.setActiveGroup(new Group(name.charAt(0) == '/' ? name.substring(1) : name));
-                }
-                else { // user must have an active group, take the first
-                    if(!currentUser.getGroups().isEmpty()) {
-                        Group activeGroup = currentUser.getGroups().iterator().next();
-                        currentUser.setActiveGroup(activeGroup);
-                    }
-                }
-            } else {
-                try {
-                    var dbOwner = userService.findOwnerByUsername(getUser());
-                    if (dbOwner.getGroups().isEmpty()) {
-                        var group = new Group(properties.getOauthDefaultGroup());
-                        currentUser.addGroup(group);
-                    } else {
-                        currentUser.setGroups(dbOwner.getGroups());
-                    }
-                    if (dbOwner.getActiveGroup() == null) {
-                        currentUser.setActiveGroup(currentUser.getGroups().iterator().next());
-                    } else {
-                        currentUser.setActiveGroup(dbOwner.getActiveGroup());
-                    }
-                } catch (UsernameNotFoundException e){
-                    var group = new Group(properties.getOauthDefaultGroup());
-                    currentUser.addGroup(group);
-                    currentUser.setActiveGroup(group);
-                }
-            }
-            currentUser.setPassword(new BCryptPasswordEncoder(11).encode(currentUser.getUsername()));
-            currentUser.setEnabled(true);
-            SecurityUtils.setPrincipal(new User(currentUser));
-            return userService.saveOwner(currentUser);
+            String username = (String) principalAttrs.get(properties.getOauthUserField());
+            String cacheKey = OwnerCache.key(username,
+                principalAttrs.get("given_name"), principalAttrs.get("family_name"),
+                authorities.stream().map(GrantedAuthority::getAuthority).toList(),
+                properties.getUseOauthGroups(),
+                principalAttrs.get("groups"), principalAttrs.get("active_group"));
+            Owner owner = ownerCache.get(cacheKey,
+                () -> resolveOwner(username, principalAttrs, authorities));
+            SecurityUtils.setPrincipal(new User(owner));
+            return owner;
         }
 
         // probably basic auth (deprecated)
@@ -483,6 +605,85 @@ public class BaseServiceImpl {
         }
     }
 
+    /**
+     * build owner from oauth2 claims and save it if it differs from the stored one
+     */
+    private Owner resolveOwner(String username, Map<String, Object> principalAttrs,
+                               Collection<GrantedAuthority> authorities) {
+        Owner currentUser = new Owner(username);
+        logger.debug("Current user: {}", currentUser.getUsername());
+        logger.debug("Authorities: {}", authorities.toString());
+        currentUser.setFirstName((String) principalAttrs.get("given_name"));
+        currentUser.setLastName((String) principalAttrs.get("family_name"));
+        currentUser.setRoles(authorities.stream().map(GrantedAuthority::getAuthority).map(Role::new).collect(Collectors.toSet()));
+        Owner dbOwner = null;
+        try {
+            dbOwner = userService.findOwnerByUsername(username);
+        } catch (UsernameNotFoundException e){
+            logger.debug("new owner {}", username);
+        }
+        if (properties.getUseOauthGroups()) {
+            if(principalAttrs.containsKey("groups")) {
+                for (String name : (List<String>) principalAttrs.get("groups")) {
+                    logger.debug("Group {}", name);
+                    // must remove first char as it is "/"
+                    currentUser.addGroup(new Group(name.substring(1, name.length())));
+                }
+            }
+            if(principalAttrs.containsKey("active_group")) {
+                String name = (String) principalAttrs.get("active_group");
+                currentUser.setActiveGroup(new Group(name.charAt(0) == '/' ? name.substring(1) : name));
+            }
+            else { // user must have an active group, take the first
+                if(!currentUser.getGroups().isEmpty()) {
+                    Group activeGroup = currentUser.getGroups().iterator().next();
+                    currentUser.setActiveGroup(activeGroup);
+                }
+            }
+        } else if (dbOwner != null) {
+            if (dbOwner.getGroups().isEmpty()) {
+                var group = new Group(properties.getOauthDefaultGroup());
+                currentUser.addGroup(group);
+            } else {
+                currentUser.setGroups(dbOwner.getGroups());
+            }
+            if (dbOwner.getActiveGroup() == null) {
+                currentUser.setActiveGroup(currentUser.getGroups().iterator().next());
+            } else {
+                currentUser.setActiveGroup(dbOwner.getActiveGroup());
+            }
+        } else {
+            var group = new Group(properties.getOauthDefaultGroup());
+            currentUser.addGroup(group);
+            currentUser.setActiveGroup(group);
+        }
+        currentUser.setEnabled(true);
+        if (dbOwner != null) {
+            if (!isModified(dbOwner, currentUser)) {
+                logger.debug("owner {} unchanged", username);
+                return dbOwner;
+            }
+            // keep stored credentials
+            currentUser.setPassword(dbOwner.getPassword());
+            currentUser.setTotpSecret(dbOwner.getTotpSecret());
+            currentUser.setTotpEnabled(dbOwner.isTotpEnabled());
+        } else {
+            // dummy password, the owner is authenticated by the token
+            currentUser.setPassword(new BCryptPasswordEncoder(11).encode(currentUser.getUsername()));
+        }
+        logger.debug("save owner {}", username);
+        return userService.saveOwner(currentUser);
+    }
+
+    private static boolean isModified(Owner dbOwner, Owner owner) {
+        return !Objects.equals(dbOwner.getFirstName(), owner.getFirstName())
+            || !Objects.equals(dbOwner.getLastName(), owner.getLastName())
+            || dbOwner.isEnabled() != owner.isEnabled()
+            || !Objects.equals(dbOwner.getRoles(), owner.getRoles())
+            || !Objects.equals(dbOwner.getGroups(), owner.getGroups())
+            || !Objects.equals(dbOwner.getActiveGroup(), owner.getActiveGroup());
+    }
+
     public ElementService getElementService() {
         return elementService;
     }
@@ -520,6 +721,7 @@ public class BaseServiceImpl {
                     logger.warn("Property {} of {} missing", key, type);
                     return false;
                 }
+                checkNotPacked(p, key, "search");
                 search.put(key, getSearchExpression(key, queryparams.get(key), ignorecase, p.getType()));
             }
             // Childargs
@@ -536,6 +738,7 @@ public class BaseServiceImpl {
                     logger.warn("Property {} of {} missing", sub[1], type);
                     return false;
                 }
+                checkNotPacked(p, key, "search");
                 if (childsearch.get(sub[0]) == null) {
                     childsearch.put(sub[0], new HashMap<String, Object>());
                 }
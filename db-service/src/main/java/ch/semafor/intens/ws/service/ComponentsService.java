@@ -7,6 +7,7 @@ import ch.semafor.gendas.model.Modification;
 import ch.semafor.gendas.model.Owner;
 import ch.semafor.gendas.exceptions.ElementTypeCreationException;
 import ch.semafor.gendas.model.PropertyType;
+import ch.semafor.gendas.search.SearchAfter;
 import ch.semafor.gendas.search.SearchEq;
 import ch.semafor.intens.ws.config.ComponentProperties;
 import ch.semafor.intens.ws.exception.TypeCreationException;
@@ -19,6 +20,9 @@ import ch.semafor.intens.ws.utils.ApprovalStateConsistency;
 import ch.semafor.intens.ws.utils.ApprovalStateTransition;
 import ch.semafor.intens.ws.utils.BaseEntityFactory;
 import ch.semafor.intens.ws.utils.IntensWsException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
@@ -34,6 +38,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -223,14 +228,24 @@ public class ComponentsService extends BaseServiceImpl {
   /**
    * Get one component by ID
    * @param id Id of the component
-   * @return The component
+   * @param response The component as json (not modified if If-None-Match matches its ETag)
    */
-  @GetMapping(path = "/components/{id}")
+  @GetMapping(path = "/components/{id}", produces = "application/json")
   @Operation(security = {
       @SecurityRequirement(name = "bearer-key")
     }
   )
-  public Map<String, Object> findById(@PathVariable("id") Long id) {
+  public void getById(@PathVariable("id") Long id, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+    jsonCache.write(findById(id), request, response);
+  }
+
+  /**
+   * Get one component by ID
+   * @param id Id of the component
+   * @return The component
+   */
+  public Map<String, Object> findById(Long id) {
     return elementService.getElementMap(id);
   }
 
@@ -328,6 +343,36 @@ public class ComponentsService extends BaseServiceImpl {
   )
   public List<Map<String, Object>> findByType(@PathVariable("type") String type,
                                               @Parameter(schema = @Schema(implementation = ExQueryParams.class)) @RequestParam Map<String, String>queryParams) {
+    return findByType(type, queryParams, null);
+  }
+
+  /**
+   * write components of type as newline delimited json while they are read
+   *
+   * @param type of components
+   * @param queryParams request parameters (as findByType with _stream)
+   * @param response components, one per line
+   */
+  @GetMapping(path = "/components/type/{type}", params = "_stream")
+  @Operation(security = {
+      @SecurityRequirement(name = "bearer-key")
+    }
+  )
+  public void streamByType(@PathVariable("type") String type,
+                           @Parameter(schema = @Schema(implementation = ExQueryParams.class)) @RequestParam Map<String, String>queryParams,
+                           HttpServletResponse response) throws IOException {
+    queryParams.remove("_stream");
+    response.setContentType(NDJSON);
+    Consumer<Map<String, Object>> sink = ndjson(response.getOutputStream());
+    findByType(type, queryParams, sink).forEach(sink);
+  }
+
+  /**
+   * @param sink receives the components of a search while they are read if not null
+   * @return components found by id or the search if sink is null
+   */
+  private List<Map<String, Object>> findByType(String type, Map<String, String> queryParams,
+                                               Consumer<Map<String, Object>> sink) {
     List<String> minimal = new ArrayList<>(Arrays.asList(
     		"name", "rev", "created", "owner", "ownername", "group", "approval")
     		); // mandatory
@@ -374,12 +419,16 @@ public class ComponentsService extends BaseServiceImpl {
 
     List<String> fields = extractFields(queryParams, minimal);
 
-    Map<String, Integer> sortmap = extractSort(queryParams);
+    Map<String, Integer> sortmap = extractSort(type, queryParams);
     String ownername = extractOwnerName(queryParams);
 
     // page and pageSize
     int page = extractPage(queryParams);
-    int pagesize = extractPageSize(queryParams);
+    int pagesize = limitPageSize(extractPageSize(queryParams), sink != null);
+    // read property values with plain sql (no references)
+    boolean flat = extractFlat(queryParams);
+    SearchAfter after = extractAfter(queryParams, sortmap);
+    boolean count = extractCount(queryParams);
 
     Map<String, Object> search = extractSearchArgs(queryParams);
 
@@ -415,20 +464,37 @@ public class ComponentsService extends BaseServiceImpl {
     if (type != null && !buildSearch(type, queryParams, search, childsearch)) {
       return l;
     }
-    // get element
-    boolean latestRevision = true;
-    l = elementService.findByType(
-    		type, ownername, fields, search, childsearch,
-        page, pagesize, sortmap, latestRevision, changedSince
-    		);
-
     AccessFilter accessFilter = new AccessFilter(getOwner(), componentProperties);
-    logger.debug("found {} components of type {}", l.size(), type);
-
     if (!this.hasAdminRole()) {
-        l = accessFilter.filterComponents(l);
-        logger.debug("--> {} remaining components after filterComponents()", l.size());
+      // the database only returns components the user is allowed to see
+      search = accessFilter.searchComponents(search);
+    }
+    if (after != null) {
+      search.put(SearchAfter.KEY, after);
+    }
+    // get element
+    boolean latestRevision = true;
+    if (count) {
+      setTotalCount(type, ownername, search, childsearch, latestRevision, changedSince);
+    }
+    if (sink != null) {
+      int n = elementService.streamByType(
+          type, ownername, fields, search, childsearch,
+          page, pagesize, sortmap, latestRevision, changedSince, sink);
+      logger.debug("streamed {} components of type {}", n, type);
+      return l;
     }
+    if (flat) {
+      l = elementService.findFlatByType(
+          type, ownername, fields, search, childsearch,
+          page, pagesize, sortmap, latestRevision, changedSince);
+    } else {
+      l = elementService.findByType(
+          type, ownername, fields, search, childsearch,
+          page, pagesize, sortmap, latestRevision, changedSince);
+    }
+    logger.debug("found {} components of type {}", l.size(), type);
+    setNextCursor(l, pagesize, sortmap);
 
 	return l;
   }
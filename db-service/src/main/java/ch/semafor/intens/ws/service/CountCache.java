@@ -0,0 +1,67 @@
+package ch.semafor.intens.ws.service;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import ch.semafor.gendas.service.Maps;
+import ch.semafor.intens.ws.config.AppProperties;
+
+/**
+ * short lived cache of total counts of listings
+ * keyed by type and search arguments (disabled if ttl is zero).
+ * Saves and deletes are not tracked, a count may be stale up to the ttl.
+ */
+@Component
+public class CountCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(CountCache.class);
+
+  private final Cache<List<Object>, Long> counts;
+
+  public CountCache(AppProperties properties) {
+    long ttl = properties.getCountCacheTtl().toMillis();
+    this.counts = ttl > 0 ? CacheBuilder.newBuilder()
+        .maximumSize(properties.getCountCacheSize())
+        .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+        .<List<Object>, Long>build() : null;
+  }
+
+  /**
+   * get count from cache or count and cache it
+   * @param counter called on cache miss
+   * @return number of elements
+   */
+  public long get(String type, String owner, Map<String, Object> searchargs,
+                  Map<String, Map<String, Object>> childargs, Date changedSince, LongSupplier counter) {
+    if (counts == null) {
+      return counter.getAsLong();
+    }
+    List<Object> key = Arrays.asList(type, owner, Maps.countArgs(searchargs),
+        childargs == null ? null : new HashMap<>(childargs), changedSince);
+    try {
+      return counts.get(key, () -> {
+        logger.debug("count {}", key);
+        return counter.getAsLong();
+      });
+    } catch (UncheckedExecutionException | ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException rex) {
+        throw rex;
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package ch.semafor.intens.ws.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import ch.semafor.intens.ws.config.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * serialized (gzip compressed) json of element maps keyed by id and the versions
+ * of all included elements, which are also sent as ETag.
+ * Large entries are kept in direct buffers outside of the heap.
+ * Disabled if the size is zero (the json is serialized on each request).
+ */
+@Component
+public class JsonCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(JsonCache.class);
+
+  private final JsonMapper jsonMapper;
+  private final Cache<String, Entry> entries;
+  private final boolean gzip;
+  private final int offHeapSize;
+
+  public JsonCache(AppProperties properties, JsonMapper jsonMapper,
+                   ObjectProvider<MeterRegistry> meterRegistry) {
+    this.jsonMapper = jsonMapper;
+    this.gzip = properties.getJsonCacheGzip();
+    this.offHeapSize = properties.getJsonCacheOffHeapSize();
+    long size = properties.getJsonCacheSize();
+    this.entries = size > 0 ? CacheBuilder.newBuilder()
+        .maximumWeight(size)
+        .<String, Entry>weigher((k, e) -> e.length())
+        .expireAfterAccess(properties.getJsonCacheTtl())
+        .recordStats()
+        .build() : null;
+    if (entries != null) {
+      meterRegistry.ifAvailable(r -> GuavaCacheMetrics.monitor(r, entries, "json"));
+    }
+  }
+
+  /**
+   * write map as json with ETag, not modified if the ETag matches If-None-Match
+   *
+   * @param map of element with id and version of all included elements (nothing written if null)
+   */
+  public void write(Map<String, Object> map, HttpServletRequest request,
+                    HttpServletResponse response) throws IOException {
+    if (map == null) {
+      return;
+    }
+    String key = key(map);
+    if (key == null) { // not versioned
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      response.getOutputStream().write(jsonMapper.writeValueAsBytes(map));
+      return;
+    }
+    String etag = "W/\"" + key + "\"";
+    response.setHeader(HttpHeaders.ETAG, etag);
+    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.contains("\"" + key + "\""))) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+    Entry e = entries != null ? entries.getIfPresent(key) : null;
+    if (e == null) {
+      e = serialize(map);
+      if (entries != null) {
+        entries.put(key, e);
+      }
+    }
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    if (e.gzipped && !acceptsGzip(request)) {
+      try (InputStream in = new GZIPInputStream(e.inputStream())) {
+        in.transferTo(response.getOutputStream());
+      }
+      return;
+    }
+    if (e.gzipped) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    response.setContentLength(e.length());
+    e.writeTo(response.getOutputStream());
+  }
+
+  public void evictAll() {
+    if (entries != null) {
+      entries.invalidateAll();
+    }
+  }
+
+  /**
+   * @return id of element and digest of id, version and owner names of
+   *         all included elements or null if any is missing
+   */
+  static String key(Map<String, Object> map) {
+    if (!(map.get("id") instanceof Number id)) {
+      return null;
+    }
+    TreeMap<Long, String> versions = new TreeMap<>();
+    if (!addVersions(map, versions)) {
+      return null;
+    }
+    try {
+      MessageDigest md = MessageDigest.getInstance("SHA-256");
+      for (Map.Entry<Long, String> v : versions.entrySet()) {
+        md.update((v.getKey() + ":" + v.getValue() + ";").getBytes(StandardCharsets.UTF_8));
+      }
+      return id.longValue() + "-" + HexFormat.of().formatHex(md.digest(), 0, 12);
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  // owner names may change without a new version of the element
+  private static boolean addVersions(Object value, TreeMap<Long, String> versions) {
+    if (value instanceof Map<?, ?> m) {
+      if (m.get("id") instanceof Number id) {
+        if (!(m.get("version") instanceof Number version)) {
+          return false;
+        }
+        versions.put(id.longValue(), version + ":" + m.get("ownername") + ":" + m.get("changername"));
+      }
+      for (Object o : m.values()) {
+        if (!addVersions(o, versions)) {
+          return false;
+        }
+      }
+    } else if (value instanceof List<?> l) {
+      for (Object o : l) {
+        if (!addVersions(o, versions)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private Entry serialize(Map<String, Object> map) throws IOException {
+    byte[] json = jsonMapper.writeValueAsBytes(map);
+    byte[] bytes = json;
+    if (gzip) {
+      ByteArrayOutputStream bout = new ByteArrayOutputStream(json.length / 4 + 64);
+      try (OutputStream out = new GZIPOutputStream(bout)) {
+        out.write(json);
+      }
+      bytes = bout.toByteArray();
+    }
+    logger.debug("serialized {} bytes ({} stored)", json.length, bytes.length);
+    if (bytes.length > offHeapSize) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+      buffer.put(bytes).flip();
+      return new Entry(null, buffer.asReadOnlyBuffer(), gzip);
+    }
+    return new Entry(bytes, null, gzip);
+  }
+
+  private static boolean acceptsGzip(HttpServletRequest request) {
+    String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    return accept != null && accept.toLowerCase().contains("gzip");
+  }
+
+  /**
+   * json bytes on the heap or in a direct buffer
+   */
+  private static final class Entry {
+    final byte[] bytes;
+    final ByteBuffer buffer;
+    final boolean gzipped;
+
+    Entry(byte[] bytes, ByteBuffer buffer, boolean gzipped) {
+      this.bytes = bytes;
+      this.buffer = buffer;
+      this.gzipped = gzipped;
+    }
+
+    int length() {
+      return bytes != null ? bytes.length : buffer.limit();
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+      if (bytes != null) {
+        out.write(bytes);
+      } else {
+        Channels.newChannel(out).write(buffer.duplicate());
+      }
+    }
+
+    InputStream inputStream() {
+      if (bytes != null) {
+        return new ByteArrayInputStream(bytes);
+      }
+      ByteBuffer b = buffer.duplicate();
+      return new InputStream() {
+        @Override
+        public int read() {
+          return b.hasRemaining() ? b.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] dst, int off, int len) {
+          if (!b.hasRemaining()) {
+            return -1;
+          }
+          int n = Math.min(len, b.remaining());
+          b.get(dst, off, n);
+          return n;
+        }
+      };
+    }
+  }
+}
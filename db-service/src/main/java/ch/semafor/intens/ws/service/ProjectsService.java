@@ -33,6 +33,7 @@ import org.springframework.web.bind.annotation.RestController;
 import ch.semafor.gendas.exceptions.CoreException;
 import ch.semafor.gendas.exceptions.UsernameNotFoundException;
 import ch.semafor.gendas.model.Owner;
+import ch.semafor.gendas.search.SearchAfter;
 import ch.semafor.gendas.search.SearchEq;
 import ch.semafor.intens.ws.config.ComponentProperties;
 import ch.semafor.intens.ws.model.ApprovalState;
@@ -159,11 +160,14 @@ public class ProjectsService extends BaseServiceImpl {
 		List<String> fields = extractFields(queryParams, minimal);
 
 		String ownername = extractOwnerName(queryParams);
-		Map<String, Integer> sortmap = extractSort(queryParams);
+		Map<String, Integer> sortmap = extractSort(PROJECT_TYPE, queryParams);
 
 		// page and pageSize
 		int page = extractPage(queryParams);
-		int pagesize = extractPageSize(queryParams);
+		int pagesize = limitPageSize(extractPageSize(queryParams), false);
+		SearchAfter after = extractAfter(queryParams, sortmap);
+		boolean count = extractCount(queryParams);
+		boolean flat = extractFlat(queryParams);
 
 		Map<String, Object> search = extractSearchArgs(queryParams);
 
@@ -200,9 +204,28 @@ public class ProjectsService extends BaseServiceImpl {
 			if (!buildSearch(PROJECT_TYPE, queryParams, search, childsearch)) {
 				return l;
 			}
+			AccessFilter accessFilter = new AccessFilter(getOwner(), componentProperties);
+			if (!this.hasAdminRole()) {
+				// the database only returns projects the user is allowed to see
+				search = accessFilter.searchProjects(search);
+			}
+			if (after != null) {
+				search.put(SearchAfter.KEY, after);
+			}
 			boolean latestRevision = true;
-			l = elementService.findByType(PROJECT_TYPE, ownername, fields,
-					search, childsearch, page, pagesize, sortmap, latestRevision, changedSince);
+			if (flat) {
+				l = elementService.findFlatByType(PROJECT_TYPE, ownername, fields,
+						search, childsearch, page, pagesize, sortmap, latestRevision, changedSince);
+			} else {
+				l = elementService.findByType(PROJECT_TYPE, ownername, fields,
+						search, childsearch, page, pagesize, sortmap, latestRevision, changedSince);
+			}
+			logger.debug("found {} projects", l.size());
+			setNextCursor(l, pagesize, sortmap);
+			if (count) {
+				setTotalCount(PROJECT_TYPE, ownername, search, childsearch, latestRevision, changedSince);
+			}
+			return l;
 		}
 
 		AccessFilter accessFilter = new AccessFilter(getOwner(), componentProperties);
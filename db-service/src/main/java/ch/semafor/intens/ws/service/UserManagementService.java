@@ -269,6 +269,7 @@ public class UserManagementService extends BaseServiceImpl {
     logger.info("Rename group from {} to {}", actual, newName);
     try {
       ret.put("changes", userService.renameGroup(actual, newName));
+      ownerCache.evictAll();
     } catch (GroupExistsException ex) {
       throw new IntensWsException(ex, HttpStatus.BAD_REQUEST);
     }
@@ -292,7 +293,7 @@ public class UserManagementService extends BaseServiceImpl {
       })
   })
   public Map<String, Object> update_password(@RequestBody String password) {
-    Owner owner = getOwner();
+    Owner owner = userService.findOwnerByUsername(getOwner().getUsername());
     // Use bcrypt strength 11
     owner.setPassword(encryptPassword(stripQuotationChars(password)));
     User user = new User(userService.saveOwner(owner));
@@ -4,6 +4,7 @@ import ch.semafor.gendas.exceptions.CoreException;
 import ch.semafor.gendas.exceptions.UsernameNotFoundException;
 import ch.semafor.gendas.model.Modification;
 import ch.semafor.gendas.model.Owner;
+import ch.semafor.gendas.search.SearchAfter;
 import ch.semafor.gendas.search.SearchEq;
 import ch.semafor.intens.ws.config.AppProperties;
 import ch.semafor.intens.ws.config.ComponentProperties;
@@ -21,6 +22,8 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +32,7 @@ import org.springframework.security.access.annotation.Secured;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.text.Format;
 import java.text.SimpleDateFormat;
@@ -58,9 +62,9 @@ public class VariantsService extends BaseServiceImpl {
      * Find single variant by id
      *
      * @param id Id of the variant
-     * @return The variant
+     * @param response The variant as json (not modified if If-None-Match matches its ETag)
      */
-    @GetMapping(path = "/variants/{id}")
+    @GetMapping(path = "/variants/{id}", produces = "application/json")
     @Operation(security = {@SecurityRequirement(name = "bearer-key")},
             responses = {
                     @ApiResponse(content = {
@@ -68,7 +72,18 @@ public class VariantsService extends BaseServiceImpl {
                                     schema = @Schema(implementation = ExVariant.class))
                     })
             })
-    public Map<String, Object> findById(@PathVariable("id") Long id) {
+    public void getById(@PathVariable("id") Long id, HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+        jsonCache.write(findById(id), request, response);
+    }
+
+    /**
+     * Find single variant by id
+     *
+     * @param id Id of the variant
+     * @return The variant
+     */
+    public Map<String, Object> findById(Long id) {
         logger.debug("find variant by id {}", id);
         var m = elementService.getElementMap(id);
         try {
@@ -136,9 +151,12 @@ public class VariantsService extends BaseServiceImpl {
         }
         List<String> fields = extractFields(queryParams, minimal);
         String owner = extractOwnerName(queryParams);
-        Map<String, Integer> sortmap = extractSort(queryParams);
+        Map<String, Integer> sortmap = extractSort(VARIANT_TYPE, queryParams);
         int page = extractPage(queryParams);
-        int pagesize = extractPageSize(queryParams);
+        int pagesize = limitPageSize(extractPageSize(queryParams), false);
+        SearchAfter after = extractAfter(queryParams, sortmap);
+        boolean count = extractCount(queryParams);
+        boolean flat = extractFlat(queryParams);
         Map<String, Object> search = extractSearchArgs(queryParams);
 
         Date changedSince = null;
@@ -172,10 +190,29 @@ public class VariantsService extends BaseServiceImpl {
                 logger.info("buildsearch disabled");
                 return l;
             }
+            AccessFilter accessFilter = new AccessFilter(getOwner(), componentProperties);
+            if (!this.hasAdminRole()) {
+                // the database only returns variants the user is allowed to see
+                search = accessFilter.searchVariants(search);
+            }
+            if (after != null) {
+                search.put(SearchAfter.KEY, after);
+            }
             logger.debug("find {} {}", VARIANT_TYPE, search);
             boolean latestRevision = true;
-            l = elementService.findByType(VARIANT_TYPE, owner, fields,
-                    search, childsearch, page, pagesize, sortmap, latestRevision, changedSince);
+            if (flat) {
+                l = elementService.findFlatByType(VARIANT_TYPE, owner, fields,
+                        search, childsearch, page, pagesize, sortmap, latestRevision, changedSince);
+            } else {
+                l = elementService.findByType(VARIANT_TYPE, owner, fields,
+                        search, childsearch, page, pagesize, sortmap, latestRevision, changedSince);
+            }
+            logger.debug("found {} variants", l.size());
+            setNextCursor(l, pagesize, sortmap);
+            if (count) {
+                setTotalCount(VARIANT_TYPE, owner, search, childsearch, latestRevision, changedSince);
+            }
+            return l;
         }
 
         AccessFilter accessFilter = new AccessFilter(getOwner(), componentProperties);
@@ -212,17 +249,15 @@ public class VariantsService extends BaseServiceImpl {
         Map<String, Object> search = new HashMap<>();
         search.put("projectId", new SearchEq<>(projectId));
         AccessFilter accessFilter = new AccessFilter(getOwner(), componentProperties);
+        if (!this.hasAdminRole()) {
+            search = accessFilter.searchVariants(search);
+        }
 
         logger.debug("find {} {}", VARIANT_TYPE, search);
         boolean latestRevision = true;
-        List<Map<String, Object>> variants = elementService.findByType(VARIANT_TYPE, anyOwner,
+        return elementService.findByType(VARIANT_TYPE, anyOwner,
                 Arrays.asList("name", "created", "desc", "owner", "ownername", "group", "approval"),
                 search, nochildargs, page, pagesize, sortmap, latestRevision);
-
-        if (!this.hasAdminRole()) {
-            return accessFilter.filterVariants(variants);
-        }
-        return variants;
     }
 
     /**
@@ -285,6 +320,7 @@ public class VariantsService extends BaseServiceImpl {
         List<Map<String, Object>> result = new ArrayList<>();
 
         AccessFilter accessFilter = new AccessFilter(getOwner(), componentProperties);
+        search = accessFilter.searchVariants(search);
         for (String refname : getVarCompNames(varcomp)) {
             Map<String, Map<String, Object>> varcompsearch = new HashMap<>();
             varcompsearch.put(refname, m);
@@ -301,7 +337,7 @@ public class VariantsService extends BaseServiceImpl {
             logger.debug("varcompsearch {}", varcompsearch);
             logger.debug("variants size {}", result.size());
         }
-        return accessFilter.filterVariants(result);
+        return result;
     }
 
     private void checkIfNewOrUpdate(Variant variant) {
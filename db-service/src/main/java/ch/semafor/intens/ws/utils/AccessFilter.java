@@ -2,6 +2,7 @@ package ch.semafor.intens.ws.utils;
 
 import ch.semafor.gendas.model.Group;
 import ch.semafor.gendas.model.Owner;
+import ch.semafor.gendas.search.SearchAccess;
 import ch.semafor.intens.ws.config.ComponentProperties;
 import ch.semafor.intens.ws.model.Component;
 import org.slf4j.Logger;
@@ -145,6 +146,51 @@ public class AccessFilter {
         return l;
     }
 
+    /**
+     * rule of {@link #accessAllowed(String, String, Map)} as search argument
+     *
+     * @return null if all elements are visible
+     */
+    public SearchAccess getSearchAccess(String type, String status) {
+        if (!active || isAdmin) {
+            return null;
+        }
+        return new SearchAccess(user,
+                memberOf.stream().map(Group::getName).toList(),
+                status,
+                componentProperties.getTrueKeys(type + "." + status + ".group"),
+                componentProperties.getTrueKeys(type + "." + status + ".others"));
+    }
+
+    /**
+     * add rule of visible elements to search arguments
+     *
+     * @return search arguments
+     */
+    public Map<String, Object> addSearchAccess(String type, String status, Map<String, Object> search) {
+        SearchAccess access = getSearchAccess(type, status);
+        if (access == null) {
+            return search;
+        }
+        if (search == null) {
+            search = new HashMap<String, Object>();
+        }
+        search.put(SearchAccess.KEY, access);
+        return search;
+    }
+
+    public Map<String, Object> searchComponents(Map<String, Object> search) {
+        return addSearchAccess("component", "approval", search);
+    }
+
+    public Map<String, Object> searchVariants(Map<String, Object> search) {
+        return addSearchAccess("variant", "approval", search);
+    }
+
+    public Map<String, Object> searchProjects(Map<String, Object> search) {
+        return addSearchAccess("project", "status", search);
+    }
+
     public List<Map<String, Object>> filterModified(List<Map<String, Object>> l, Date changedAfter) {
         logger.debug("filter 'changed' geq {}", changedAfter);
         Iterator<Map<String, Object>> it = l.iterator();
@@ -4,31 +4,42 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.FileNotFoundException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import ch.semafor.gendas.dao.OwnerRepository;
+import ch.semafor.gendas.dao.jpa.custom.ElementRepositoryJpaImpl;
 import ch.semafor.gendas.exceptions.CoreException;
 import ch.semafor.gendas.exceptions.ElementCreationException;
 import ch.semafor.gendas.exceptions.UsernameNotFoundException;
+import ch.semafor.gendas.model.CurrentValueList;
 import ch.semafor.gendas.model.Element;
+import ch.semafor.gendas.model.ElementRefs;
 import ch.semafor.gendas.model.ElementType;
 import ch.semafor.gendas.model.Owner;
 import ch.semafor.gendas.model.Property;
@@ -36,8 +47,14 @@ import ch.semafor.gendas.model.PropertyType;
 import ch.semafor.gendas.model.PropertyValue;
 import ch.semafor.gendas.model.PropertyValueList;
 import ch.semafor.gendas.model.TableModification;
+import ch.semafor.gendas.search.SearchAccess;
+import ch.semafor.gendas.search.SearchAfter;
 import ch.semafor.gendas.search.SearchEq;
 import ch.semafor.gendas.search.SearchIn;
+import ch.semafor.intens.ws.utils.IntensWsException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import javax.sql.DataSource;
 
 @ActiveProfiles("jpa")
 @DataJpaTest
@@ -48,6 +65,12 @@ public class ElementRepositoryJpaTest {
     @Autowired
     private ElementRepositoryJpa elementRepository;
 
+    @Autowired
+    private ElementRepositoryJpaImpl elementRepositoryImpl;
+
+    @Autowired
+    private CurrentValueListRepositoryJpa currentValueListRepository;
+
     @Autowired
     private OwnerRepository ownerRepository;
 
@@ -57,6 +80,12 @@ public class ElementRepositoryJpaTest {
     @Autowired
     private PropertyTypeRepositoryJpa propertyTypeRepositoryJpa;
 
+    @Autowired
+    private DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Test
     @Sql({"/gendas-data.sql"})
     public void genderCode() throws CoreException {
@@ -109,6 +138,122 @@ public class ElementRepositoryJpaTest {
         assertEquals( "Haleluia", p.getProperty( lastName ).getValue(0));
     }
 
+    @Test@Sql({"/gendas-data.sql"})
+    public void toMapLoadsCurrentRevisionOnly() throws CoreException {
+        Element p = elementRepository.findById(Long.valueOf(3L)).orElse(null);
+        PropertyType firstName = propertyTypeRepositoryJpa.findByElementTypeAndName(
+            p.getElementType(), "firstname");
+        p.getProperty(firstName).setValue(0, "firstName2");
+        elementRepository.save(p);
+        entityManager.flush();
+        entityManager.clear();
+
+        var util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        Element e = elementRepository.findById(Long.valueOf(1L)).orElse(null);
+        Map<String, Object> map = e.toMap();
+        List<Map<String, Object>> person = (List<Map<String, Object>>) map.get("person");
+        assertEquals("firstName2", person.get(0).get("firstname"));
+        for (ElementRefs r : e.getReferences()) {
+            assertTrue(!util.isLoaded(r, "reflist"), r.getRefName());
+        }
+        for (Property prop : e.getProperties()) {
+            assertTrue(!util.isLoaded(prop, "valuelist"), prop.getName());
+        }
+
+        // history is loaded for older revisions
+        p = elementRepository.findById(Long.valueOf(3L)).orElse(null);
+        assertEquals("firstName1", p.getProperty(firstName).getValueList(1L).getValue(0));
+    }
+
+    @Test@Sql({"/gendas-data.sql"})
+    public void toMapLoadsLastModificationOnly() throws CoreException {
+        String etype = "com.mycompany.customerrelations.Customer";
+        for (Element e : elementRepository.findByType(etype)) {
+            e.getProperties().get(0).setValue(0, e.getId().intValue() + 1000);
+            elementRepository.save(e);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        var util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        Statistics stats = elementRepository.getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        List<Element> elements = elementRepository.findElementsByArgs(
+            etype, null, null, null, null, true, null, false);
+        assertEquals(3, elements.size());
+        for (Element e : elements) {
+            Map<String, Object> map = e.toMap(List.of("changed", "changer"));
+            assertNotNull(map.get("changed"));
+            assertEquals(2L, e.getLastModification().getRevision());
+            assertTrue(!util.isLoaded(e, "modifications"));
+        }
+        // one batch of last modifications, no history
+        assertEquals(1, stats.getCollectionStatistics(Element.class.getName() + ".lastModification").getFetchCount());
+        assertEquals(0, stats.getCollectionStatistics(Element.class.getName() + ".modifications").getFetchCount());
+        stats.setStatisticsEnabled(false);
+    }
+
+    @Test@Sql({"/gendas-data.sql"})
+    public void fetchPropertiesOfProjection() throws CoreException {
+        String etype = "com.mycompany.customerrelations.Customer";
+        List<String> pnames = List.of("customerNumber", "person.lastname", "addresses.city");
+        List<Map<String, Object>> expected = new ArrayList<Map<String, Object>>();
+        for (Element e : elementRepository.findElementsByArgs(etype, null, null, null, null, true, null, false)) {
+            expected.add(e.toMap(pnames));
+        }
+        entityManager.clear();
+
+        Statistics stats = elementRepository.getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        List<Element> elements = elementRepository.findElementsByArgs(
+            etype, null, null, null, null, true, null, false);
+        elementRepository.fetchProperties(elements, pnames);
+        long fetched = stats.getPrepareStatementCount();
+        List<Map<String, Object>> maps = new ArrayList<Map<String, Object>>();
+        for (Element e : elements) {
+            maps.add(e.toMap(pnames));
+        }
+        long lazy = stats.getPrepareStatementCount() - fetched;
+        stats.setStatisticsEnabled(false);
+        logger.info("statements fetch {} toMap {}", fetched, lazy);
+        assertEquals(expected, maps);
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i).getId() == 1L) {
+                assertEquals("lastName1", ((Map<String, Object>) maps.get(i).get("person")).get("lastname"));
+            }
+        }
+        // bounded by the depth of the projection, not by the number of elements
+        assertTrue(fetched <= 16, "fetch statements " + fetched);
+        // element type and last modifications
+        assertTrue(lazy <= 2, "lazy loads " + lazy);
+    }
+
+    @Test@Sql({"/gendas-data.sql"})
+    public void toMapOfPageInBatches() throws CoreException {
+        String etype = "com.mycompany.customerrelations.Customer";
+        List<Map<String, Object>> expected = new ArrayList<Map<String, Object>>();
+        for (Element e : elementRepository.findElementsByArgs(etype, null, null, null, null, true, null, false)) {
+            expected.add(e.toMap(null, null));
+        }
+        entityManager.clear();
+
+        Statistics stats = elementRepository.getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        List<Map<String, Object>> maps = new ArrayList<Map<String, Object>>();
+        for (Element e : elementRepository.findElementsByArgs(etype, null, null, null, null, true, null, false)) {
+            maps.add(e.toMap(null, null));
+        }
+        long statements = stats.getPrepareStatementCount();
+        stats.setStatisticsEnabled(false);
+        assertEquals(expected, maps);
+        // one batch per collection and level of references instead of one query per element
+        // (80 statements without batch fetching)
+        assertTrue(statements <= 20, "statements " + statements);
+    }
+
     @Test@Sql({"/gendas-data.sql"})
     public void testUpdateElement() throws CoreException {
         Element e = elementRepository.findById(Long.valueOf(3L)).orElse(null);
@@ -522,6 +667,172 @@ public class ElementRepositoryJpaTest {
         assertEquals(1, elements.size());
     }
 
+    @Test@Sql({"/gendas-data.sql"})
+    public void testFindElementsByAccess() throws CoreException {
+        String etype= "com.mycompany.customerrelations.Customer";
+        boolean latestRevision=true;
+        // only customer 1 (owner bob) has a name 'cust1', customers 4 and 7 have none
+        final Map<String, Object> args = new HashMap<String, Object>();
+        args.put(SearchAccess.KEY, new SearchAccess("bob", List.of(), "name", List.of(), List.of()));
+        assertEquals(3, elementRepository.findElementsByArgs(
+            etype, null, args, null, null, latestRevision, null, false).size());
+
+        args.put(SearchAccess.KEY, new SearchAccess("alice", List.of(), "name", List.of(), List.of()));
+        assertEquals(2, elementRepository.findElementsByArgs(
+            etype, null, args, null, null, latestRevision, null, false).size());
+
+        args.put(SearchAccess.KEY, new SearchAccess("alice", List.of(), "name", List.of(), List.of("cust1")));
+        assertEquals(3, elementRepository.findElementsByArgs(
+            etype, null, args, null, null, latestRevision, null, false).size());
+
+        // customer 1 has no group
+        args.put(SearchAccess.KEY, new SearchAccess("alice", List.of("groupA"), "name", List.of("cust1"), List.of()));
+        assertEquals(2, elementRepository.findElementsByArgs(
+            etype, null, args, null, null, latestRevision, null, false).size());
+
+        // pages only contain visible elements
+        Pageable pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id"));
+        List<Element> elements = elementRepository.findElementsByArgs(
+            etype, null, args, null, pageable, latestRevision, null, true);
+        assertEquals(2, elements.size());
+        assertEquals(Long.valueOf(4), elements.get(0).getId());
+        assertEquals(Long.valueOf(7), elements.get(1).getId());
+    }
+
+    @Test@Sql({"/gendas-data.sql"})
+    public void testFindElementsSortedByProperties() throws CoreException {
+        String etype= "com.mycompany.customerrelations.Customer";
+        boolean latestRevision=true;
+        // only customer 1 has a name (h2 sorts nulls first), customerNumbers: 1 -> 123, 4 -> 987, 7 -> 2222
+        Sort sort = Sort.by(Sort.Order.asc("name"), Sort.Order.desc("customerNumber"));
+        List<Element> elements = elementRepository.findElementsByArgs(
+            etype, null, null, null, PageRequest.of(0, 2, sort), latestRevision, null, true);
+        assertEquals(2, elements.size());
+        assertEquals(Long.valueOf(7), elements.get(0).getId());
+        assertEquals(Long.valueOf(4), elements.get(1).getId());
+
+        elements = elementRepository.findElementsByArgs(
+            etype, null, null, null, PageRequest.of(1, 2, sort), latestRevision, null, true);
+        assertEquals(1, elements.size());
+        assertEquals(Long.valueOf(1), elements.get(0).getId());
+
+        // element attributes are sorted by their columns
+        for (String key : List.of("group", "version", "changer", "changername")) {
+            elements = elementRepository.findElementsByArgs(
+                etype, null, null, null, PageRequest.of(0, 5, Sort.by(key)), latestRevision, null, true);
+            assertEquals(3, elements.size());
+        }
+        IntensWsException ex = assertThrows(IntensWsException.class, () -> elementRepository.findElementsByArgs(
+            etype, null, null, null, PageRequest.of(0, 5, Sort.by("unknown")), latestRevision, null, true));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+    }
+
+    @Test@Sql({"/gendas-data.sql"})
+    public void testFindElementsAfterCursor() throws CoreException {
+        String etype = "com.mycompany.customerrelations.Customer";
+        Sort sort = Sort.by(Sort.Direction.DESC, "id");
+        List<Long> offsetIds = new ArrayList<Long>();
+        for (int page = 0; page < 3; page++) {
+            for (Element e : elementRepository.findElementsByArgs(
+                    etype, null, null, null, PageRequest.of(page, 1, sort), true, null, true)) {
+                offsetIds.add(e.getId());
+            }
+        }
+        assertEquals(List.of(7L, 4L, 1L), offsetIds);
+
+        List<Long> cursorIds = new ArrayList<Long>();
+        Map<String, Object> args = new HashMap<String, Object>();
+        List<Element> elements = elementRepository.findElementsByArgs(
+                etype, null, args, null, PageRequest.of(0, 1, sort), true, null, true);
+        while (!elements.isEmpty()) {
+            Long last = elements.get(elements.size() - 1).getId();
+            cursorIds.add(last);
+            // page number is ignored with a cursor
+            args.put(SearchAfter.KEY, SearchAfter.of(SearchAfter.token(last), false));
+            elements = elementRepository.findElementsByArgs(
+                    etype, null, args, null, PageRequest.of(5, 1, sort), true, null, true);
+        }
+        assertEquals(offsetIds, cursorIds);
+
+        args.put(SearchAfter.KEY, new SearchAfter(1L, true));
+        elements = elementRepository.findElementsByArgs(etype, null, args, null,
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "id")), true, null, true);
+        assertEquals(List.of(4L, 7L), elements.stream().map(Element::getId).toList());
+    }
+
+    @Test@Sql({"/gendas-data.sql"})
+    public void testStreamElementsByArgs() throws CoreException {
+        String etype = "com.mycompany.customerrelations.Customer";
+        Sort sort = Sort.by(Sort.Order.asc("name"), Sort.Order.desc("customerNumber"));
+        List<Long> expected = elementRepository.findElementsByArgs(etype, null, null, null,
+                PageRequest.of(0, Integer.MAX_VALUE, sort), true, null, false)
+                .stream().map(Element::getId).toList();
+        assertEquals(3, expected.size());
+        try (Stream<Element> elements = elementRepository.streamElementsByArgs(etype, null, null, null,
+                PageRequest.of(0, Integer.MAX_VALUE, sort), true, null)) {
+            assertEquals(expected, elements.map(Element::getId).toList());
+        }
+        try (Stream<Element> elements = elementRepository.streamElementsByArgs(etype, null, null, null,
+                PageRequest.of(1, 2, sort), true, null)) {
+            assertEquals(expected.subList(2, 3), elements.map(Element::getId).toList());
+        }
+    }
+
+    @Test@Sql({"/gendas-data.sql"})
+    public void testCountElementsByArgs() throws CoreException {
+        String etype = "com.mycompany.customerrelations.Customer";
+        assertEquals(3, elementRepository.countElementsByArgs(etype, null, null, null, true, null));
+
+        Map<String, Map<String, Object>> childargs = new HashMap<String, Map<String, Object>>();
+        Map<String, Object> addressargs = new HashMap<String, Object>();
+        addressargs.put("city", new SearchEq("%ity%"));
+        childargs.put("addresses", addressargs);
+        Map<String, Object> args = new HashMap<String, Object>();
+        args.put("customerNumber", new SearchEq(123));
+        assertEquals(elementRepository.findElementsByArgs(etype, null, args, childargs, null, true, null, false).size(),
+                elementRepository.countElementsByArgs(etype, null, args, childargs, true, null));
+        try {
+            elementRepositoryImpl.setSearchJoins(true);
+            assertEquals(1, elementRepository.countElementsByArgs(etype, null, args, childargs, true, null));
+        } finally {
+            elementRepositoryImpl.setSearchJoins(false);
+        }
+
+        args.put(SearchAccess.KEY, new SearchAccess("alice", List.of("groupA"), "name", List.of("cust1"), List.of()));
+        args.remove("customerNumber");
+        assertEquals(2, elementRepository.countElementsByArgs(etype, null, args, null, true, null));
+    }
+
+    @Test@Sql({"/gendas-data.sql"})
+    public void testFindElementsWithSearchProjection() throws CoreException {
+        for (Element e : elementRepository.getAllActive()) {
+            for (Property p : e.getProperties()) {
+                currentValueListRepository.save(new CurrentValueList(e.getId(), p.getName(),
+                    p.getValueList(TableModification.MaxRevision)));
+            }
+        }
+        String etype = "com.mycompany.customerrelations.Customer";
+        Map<String, Map<String, Object>> childargs = new HashMap<String, Map<String, Object>>();
+        Map<String, Object> addressargs = new HashMap<String, Object>();
+        addressargs.put("city", new SearchEq("%ity%"));
+        childargs.put("addresses", addressargs);
+        Sort sort = Sort.by(Sort.Order.asc("name"), Sort.Order.desc("customerNumber"));
+        try {
+            elementRepositoryImpl.setSearchProjection(true);
+            List<Element> elements = elementRepository.findElementsByArgs(
+                etype, null, null, null, PageRequest.of(0, 2, sort), true, null, true);
+            assertEquals(List.of(7L, 4L), elements.stream().map(Element::getId).toList());
+
+            Map<String, Object> args = new HashMap<String, Object>();
+            args.put("customerNumber", new SearchEq(123));
+            elements = elementRepository.findElementsByArgs(
+                etype, null, args, childargs, null, true, null, false);
+            assertEquals(List.of(1L), elements.stream().map(Element::getId).toList());
+        } finally {
+            elementRepositoryImpl.setSearchProjection(false);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Test@Sql({"/gendas-data.sql"})
     public void testFindElementsByArgs() throws CoreException {
@@ -600,6 +911,40 @@ public class ElementRepositoryJpaTest {
         }
     }
 
+    @Test@Sql({"/gendas-data.sql"})
+    public void testFindElementsByArgsJoinsAndSubqueries() throws CoreException {
+        String etype = "com.mycompany.customerrelations.Customer";
+        Map<String, Object> args = new HashMap<String, Object>();
+        args.put("customerNumber", new SearchEq(123));
+        args.put("_not_name", new SearchEq("nobody"));
+        Map<String, Map<String, Object>> childargs = new HashMap<String, Map<String, Object>>();
+        Map<String, Object> addressargs = new HashMap<String, Object>();
+        addressargs.put("city", new SearchEq("%ity%"));
+        addressargs.put("country", new SearchEq("Country%"));
+        childargs.put("addresses", addressargs);
+
+        Statistics stats = elementRepository.getStatistics();
+        stats.setStatisticsEnabled(true);
+        List<List<Long>> ids = new ArrayList<List<Long>>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                elementRepositoryImpl.setSearchJoins(i == 0);
+                entityManager.clear();
+                stats.clear();
+                List<Element> elements = elementRepository.findElementsByArgs(
+                    etype, null, args, childargs, null, true, null, false);
+                // all arguments in a single statement, with joins as well as with subqueries
+                assertEquals(1, stats.getPrepareStatementCount());
+                ids.add(elements.stream().map(Element::getId).sorted().toList());
+            }
+        } finally {
+            elementRepositoryImpl.setSearchJoins(false);
+            stats.setStatisticsEnabled(false);
+        }
+        assertEquals(List.of(1L), ids.get(1));
+        assertEquals(ids.get(0), ids.get(1));
+    }
+
     @Test@Sql({"/gendas-data.sql"})
     public void testListProperties() throws CoreException{
         List<Double> credits=new ArrayList<Double>();
@@ -628,6 +973,55 @@ public class ElementRepositoryJpaTest {
         assertEquals(credits, actual);
     }
 
+    @Test@Sql({"/gendas-data.sql"})
+    public void testPackedMatrixProperties() throws CoreException{
+        PropertyType t = propertyTypeRepositoryJpa.findByName("credits");
+        t.setPacked(true);
+        propertyTypeRepositoryJpa.save(t);
+
+        Element cust = elementRepository.findById(4L).orElse(null);
+        Property p = new Property(cust, t);
+        for(int i=0; i<6; i++){
+            p.setValue(i, i < 5 ? (double) i : null);
+        }
+        p.setDims(Arrays.asList(2, 3));
+        elementRepository.save(cust);
+        entityManager.flush();
+        entityManager.clear();
+
+        cust = elementRepository.findById(4L).orElse(null);
+        PropertyValueList pl = cust.getProperty(t).getValueList(TableModification.MaxRevision);
+        assertTrue(pl.isPacked());
+        assertEquals(Arrays.asList(2, 3), pl.getDims());
+        assertEquals(6, pl.getValues().size());
+        assertEquals(Arrays.asList(Arrays.asList(0.0, 1.0, 2.0), Arrays.asList(3.0, 4.0)),
+                cust.toMap().get("credits"));
+
+        // a modified value creates a new packed revision
+        cust.getProperty(t).setValue(1, 11.0);
+        elementRepository.save(cust);
+        entityManager.flush();
+        entityManager.clear();
+
+        cust = elementRepository.findById(4L).orElse(null);
+        assertEquals(11.0, cust.getProperty(t).getValue(1));
+        assertEquals(Arrays.asList(2, 3),
+                cust.getProperty(t).getValueList(TableModification.MaxRevision).getDims());
+    }
+
+    @Test@Sql({"/gendas-data.sql"})
+    public void packExistingValueLists() throws SQLException{
+        PackPropertyValuesChange change = new PackPropertyValuesChange();
+        assertEquals(1, change.pack(DataSourceUtils.getConnection(dataSource), "credits"));
+        entityManager.clear();
+
+        Element cust = elementRepository.findById(1L).orElse(null);
+        Property p = cust.getProperty("credits");
+        assertTrue(p.getType().isPacked());
+        assertTrue(p.getValueList(TableModification.MaxRevision).isPacked());
+        assertEquals(1.0, p.getValue(0));
+    }
+
     @Test@Sql({"/gendas-data.sql"})
     public void saveAndRetrieveElementWithCData() throws ElementCreationException, CoreException {
         final Map<String,Object> data = new HashMap<String, Object>();
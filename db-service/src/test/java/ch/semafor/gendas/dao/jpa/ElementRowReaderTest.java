@@ -0,0 +1,85 @@
+package ch.semafor.gendas.dao.jpa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import ch.semafor.gendas.exceptions.CoreException;
+import ch.semafor.gendas.model.Element;
+import ch.semafor.gendas.model.Property;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+@ActiveProfiles("jpa")
+@DataJpaTest
+@Import(ElementRowReader.class)
+public class ElementRowReaderTest {
+
+    private static final String CUSTOMER = "com.mycompany.customerrelations.Customer";
+
+    @Autowired
+    private ElementRepositoryJpa elementRepository;
+
+    @Autowired
+    private ElementRowReader rowReader;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    @Sql({"/gendas-data.sql"})
+    public void readPropertiesAsToMap() throws CoreException {
+        List<Element> elements = elementRepository.findElementsByArgs(CUSTOMER, null, null, null, null, true, null, false);
+        assertFalse(elements.isEmpty());
+        List<Long> ids = new ArrayList<Long>();
+        Map<Long, Map<String, Object>> expected = new HashMap<Long, Map<String, Object>>();
+        for (Element e : elements) {
+            ids.add(e.getId());
+            Map<String, Object> map = e.toMap(null, null);
+            Map<String, Object> props = new HashMap<String, Object>();
+            for (Property p : e.getProperties()) {
+                if (map.containsKey(p.getType().getName())) {
+                    props.put(p.getType().getName(), map.get(p.getType().getName()));
+                }
+            }
+            expected.put(e.getId(), props);
+        }
+        entityManager.clear();
+
+        Map<Long, Map<String, Object>> maps = rowReader.readProperties(ids, null);
+        for (Long id : ids) {
+            Map<String, Object> props = maps.getOrDefault(id, Map.of());
+            for (Map.Entry<String, Object> e : expected.get(id).entrySet()) {
+                assertEquals(e.getValue(), props.get(e.getKey()),
+                        "element " + id + " property " + e.getKey());
+            }
+        }
+    }
+
+    @Test
+    @Sql({"/gendas-data.sql"})
+    public void readProjectedProperties() throws CoreException {
+        List<Element> elements = elementRepository.findElementsByArgs(CUSTOMER, null, null, null, null, true, null, false);
+        List<Long> ids = elements.stream().map(Element::getId).toList();
+        Map<Long, Map<String, Object>> maps = rowReader.readProperties(ids, List.of("customerNumber", "address.street"));
+        assertFalse(maps.isEmpty());
+        for (Map<String, Object> m : maps.values()) {
+            assertEquals(1, m.size());
+            assertTrue(m.containsKey("customerNumber"));
+        }
+        assertTrue(rowReader.readProperties(ids, List.of("address.street")).isEmpty());
+        assertTrue(rowReader.readProperties(List.of(), null).isEmpty());
+    }
+}
@@ -3,6 +3,8 @@ package ch.semafor.gendas.dao.mongo;
 import ch.semafor.gendas.events.MapModelListener;
 import ch.semafor.gendas.exceptions.CoreException;
 import ch.semafor.gendas.model.*;
+import ch.semafor.gendas.service.ElementRegistryService;
+import ch.semafor.gendas.service.OwnerNameCache;
 import ch.semafor.gendas.service.SequenceGeneratorService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -12,12 +14,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.mongodb.test.autoconfigure.DataMongoTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @ActiveProfiles("mongo")
 @Testcontainers
@@ -25,6 +31,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class ElementTest extends RepositoryMongoTest {
     private static final Logger logger = LoggerFactory.getLogger(ElementTest.class);
     @TestConfiguration
+    @Import(OwnerNameCache.class)
     static class ElementRepositoryMongoTestConfig {
 
         @Bean
@@ -36,6 +43,11 @@ public class ElementTest extends RepositoryMongoTest {
         public MapModelListener beforeMapSaveListener() {
             return new MapModelListener();
         }
+
+        @Bean
+        public ElementRegistryService elementRegistryService() {
+            return new ElementRegistryService(100);
+        }
     }
     @Autowired
     ElementRepositoryMongo elementRepositoryMongo;
@@ -43,6 +55,12 @@ public class ElementTest extends RepositoryMongoTest {
     @Autowired
     OwnerRepositoryMongo ownerRepositoryMongo;
 
+    @Autowired
+    ElementRegistryService elementRegistry;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
     @Test
     public void createElement() throws CoreException {
         String type1 = "Customer";
@@ -80,8 +98,30 @@ public class ElementTest extends RepositoryMongoTest {
         assertEquals(cust1.toMap(), map);
     }
 
+    @Test
+    public void registerElement() throws CoreException {
+        ownerRepositoryMongo.save(new Owner("hans"));
+        ElementType et = new ElementType("Customer");
+        et.setId(1L);
+        mongoTemplate.save(et);
+        Map<String, Object> map = new HashMap<>();
+        map.put("owner", "hans");
+        map.put("name", "first");
+        map = elementRepositoryMongo.save("Customer", map);
+        Long id = (Long) map.get("id");
+        assertEquals("Customer", elementRegistry.findType(id));
+
+        elementRegistry.remove(id);
+        assertNull(elementRegistry.findType(id));
+        assertEquals(1, elementRegistry.backfill());
+        assertEquals("Customer", elementRegistry.findType(id));
+    }
+
     @AfterEach
     public void tearDown() throws Exception {
         elementRepositoryMongo.deleteAll();
+        mongoTemplate.dropCollection("Customer");
+        mongoTemplate.dropCollection(ElementType.class);
+        mongoTemplate.dropCollection(ElementRegistration.class);
     }
 }
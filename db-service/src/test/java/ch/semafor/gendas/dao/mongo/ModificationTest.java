@@ -105,6 +105,17 @@ public class ModificationTest extends RepositoryMongoTest {
         assertEquals( changeStrings.get(2), mods.get(2).getComment());
     }
 
+    @Test
+    public void findLastOfElements() {
+        Long otherRef = elementRef + 1;
+        modificationRepositoryMongo.save(new MapModification(otherRef, new Owner("hans"), "Other", new HashMap<>()));
+        Map<Long, MapModification> mods = modificationRepositoryMongo.findLastOfElements(
+                Arrays.asList(elementRef, otherRef, elementRef + 2));
+        assertEquals(2, mods.size());
+        assertEquals(changeStrings.get(2), mods.get(elementRef).getComment());
+        assertEquals("Other", mods.get(otherRef).getComment());
+    }
+
     @AfterEach
     public void tearDown() {
        modificationRepositoryMongo.deleteAll();
@@ -79,6 +79,35 @@ public class ElementTest {
     assertEquals(person2, person1);
   }
 
+  @Test
+  public void testAssignWide() throws CoreException {
+    final ElementType tpers = new ElementType("person");
+    final ElementType taddr = new ElementType("address");
+    final PropertyType tstreet = new PropertyType("street", Type.STRING);
+    final Element person1 = new Element( tpers );
+    final Element person2 = new Element( tpers );
+    for (int i = 0; i < 1000; i++) {
+      final PropertyType t = new PropertyType("p" + i, Type.INTEGER);
+      tpers.add(t);
+      new Property( person1, t ).setValue(0, i);
+    }
+    final List<Element> refs = new ArrayList<Element>();
+    for (int i = 0; i < 5000; i++) {
+      final Element addr = new Element(taddr);
+      new Property( addr, tstreet ).setValue(0, "street" + i);
+      refs.add(addr);
+    }
+    person1.setListOfElements( "addr", refs );
+
+    final long start = System.nanoTime();
+    person2.assign(person1, new ArrayList<Element>(), null);
+    logger.info("assign 1000 properties and 5000 children in {} ms", (System.nanoTime() - start) / 1000000);
+    assertEquals(1000, person2.getProperties().size());
+    assertEquals(999, person2.getProperty("p999").getValue(0));
+    assertEquals(5000, person2.getElementRefs("addr").getListOfElements(TableModification.MaxRevision).size());
+    assertEquals(person2, person1);
+  }
+
   @Test // TODO check element equals with deleted props and/or refs
   public void testAssign() throws CoreException {
 	  final ElementType tpers = new ElementType("person");
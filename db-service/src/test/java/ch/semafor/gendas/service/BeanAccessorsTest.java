@@ -0,0 +1,99 @@
+package ch.semafor.gendas.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ReflectionUtils;
+
+import com.mycompany.customerrelations.Address;
+import com.mycompany.customerrelations.Customer;
+
+public class BeanAccessorsTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BeanAccessorsTest.class);
+
+    @Test
+    public void gettersOfCustomer() throws Exception {
+        Map<String, BeanAccessors.Getter> getters = new HashMap<String, BeanAccessors.Getter>();
+        for (BeanAccessors.Getter g : BeanAccessors.getters(Customer.class)) {
+            getters.put(g.propName, g);
+        }
+        assertSame(BeanAccessors.getters(Customer.class), BeanAccessors.getters(Customer.class));
+        assertEquals(Address.class, getters.get("addresses").genArgType);
+        assertEquals(Double.class, getters.get("credits").genArgType);
+        assertNull(getters.get("person").genArgType);
+        assertNotNull(getters.get("premium"));
+        assertNull(getters.get("class"));
+
+        Customer c = new Customer();
+        c.setId(5L);
+        c.setVersion(2);
+        c.setPremium(true);
+        assertEquals(5L, getters.get("id").get(c));
+        assertEquals(2, getters.get("version").get(c));
+        assertEquals(true, getters.get("premium").get(c));
+
+        assertEquals("setId", BeanAccessors.method(Customer.class, "setId").getName());
+        assertNull(BeanAccessors.method(Customer.class, "setUnknown"));
+    }
+
+    @Test
+    public void compareWithReflection() throws Exception {
+        List<Customer> customers = new ArrayList<Customer>();
+        for (int i = 0; i < 1000; i++) {
+            Customer c = new Customer();
+            c.setId((long) i);
+            customers.add(c);
+        }
+        for (int n = 0; n < 3; n++) {
+            long start = System.nanoTime();
+            long count = 0;
+            for (Customer c : customers) {
+                for (Method m : getters(c.getClass())) {
+                    if (m.getParameterCount() == 0) {
+                        count += m.invoke(c) != null ? 1 : 0;
+                    }
+                }
+            }
+            long reflection = System.nanoTime() - start;
+            start = System.nanoTime();
+            long count2 = 0;
+            for (Customer c : customers) {
+                for (BeanAccessors.Getter g : BeanAccessors.getters(c.getClass())) {
+                    if (g.method.getParameterCount() == 0) {
+                        count2 += g.get(c) != null ? 1 : 0;
+                    }
+                }
+            }
+            long accessors = System.nanoTime() - start;
+            assertEquals(count, count2);
+            logger.info("getters of {} customers: reflection {} µs, accessors {} µs",
+                    customers.size(), reflection / 1000, accessors / 1000);
+        }
+    }
+
+    // the previous path: methods collected on each call
+    private static List<Method> getters(Class<?> clazz) {
+        List<Method> l = new ArrayList<Method>();
+        ReflectionUtils.doWithMethods(clazz, method -> {
+            String name = method.getName();
+            if (((name.startsWith("get") && name.length() > 3)
+                    || (name.startsWith("is") && name.length() > 2))
+                    && !name.equals("getClass")) {
+                l.add(method);
+            }
+        });
+        return l;
+    }
+}
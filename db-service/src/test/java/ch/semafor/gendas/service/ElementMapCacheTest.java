@@ -0,0 +1,127 @@
+package ch.semafor.gendas.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+public class ElementMapCacheTest {
+
+    // current versions of elements 1 (parent) and 2 (child)
+    private final Map<Long, Long> versions = new HashMap<Long, Long>(Map.of(1L, 0L, 2L, 0L));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Map<Long, Long> versions(Collection<Long> ids) {
+        Map<Long, Long> v = new HashMap<Long, Long>();
+        for (Long id : ids) {
+            if (versions.containsKey(id)) {
+                v.put(id, versions.get(id));
+            }
+        }
+        return v;
+    }
+
+    private ElementMapCache.Versioned load(Long id) {
+        loads.incrementAndGet();
+        if (!versions.containsKey(id)) {
+            return null;
+        }
+        Map<String, Object> child = new HashMap<String, Object>(Map.of("id", 2L, "version", versions.get(2L),
+                "owner", "bob", "ownername", "Bob"));
+        List<Object> children = new ArrayList<Object>(List.of(child));
+        Map<String, Object> m = new HashMap<String, Object>(Map.of("id", id, "children", children));
+        return new ElementMapCache.Versioned(m, versions(List.of(id, 2L)));
+    }
+
+    private ElementMapCache cache(SimpleMeterRegistry registry, long weight) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", registry);
+        return new ElementMapCache(beans.getBeanProvider(MeterRegistry.class), weight, Duration.ofMinutes(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object childVersion(Map<String, Object> m) {
+        return ((List<Map<String, Object>>) m.get("children")).get(0).get("version");
+    }
+
+    @Test
+    public void validateVersions() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ElementMapCache cache = cache(registry, 1000);
+
+        Map<String, Object> m = cache.get(1L, null, this::versions, () -> load(1L));
+        m.put("id", 99L); // copies are returned
+        assertEquals(1L, cache.get(1L, null, this::versions, () -> load(1L)).get("id"));
+        assertEquals(1, loads.get());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "elementmaps").tag("result", "hit")
+                .functionCounter().count());
+
+        // projections are separate entries
+        cache.get(1L, List.of("id"), this::versions, () -> load(1L));
+        assertEquals(2, loads.get());
+
+        // child modified
+        versions.put(2L, 1L);
+        assertEquals(1L, childVersion(cache.get(1L, null, this::versions, () -> load(1L))));
+        assertEquals(3, loads.get());
+        assertEquals(1L, childVersion(cache.get(1L, null, this::versions, () -> load(1L))));
+        assertEquals(3, loads.get());
+
+        // deleted
+        versions.remove(1L);
+        assertNull(cache.get(1L, null, this::versions, () -> load(1L)));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void evict() {
+        ElementMapCache cache = cache(new SimpleMeterRegistry(), 1000);
+        cache.get(1L, null, this::versions, () -> load(1L));
+        cache.get(2L, null, this::versions, () -> load(2L));
+        cache.evict(1L);
+        cache.get(2L, null, this::versions, () -> load(2L));
+        assertEquals(2, loads.get());
+        cache.get(1L, null, this::versions, () -> load(1L));
+        assertEquals(3, loads.get());
+
+        // all maps include child 2
+        cache.evict(2L);
+        cache.get(1L, null, this::versions, () -> load(1L));
+        cache.get(2L, null, this::versions, () -> load(2L));
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void evictOwner() {
+        ElementMapCache cache = cache(new SimpleMeterRegistry(), 1000);
+        cache.get(1L, null, this::versions, () -> load(1L));
+        cache.get(2L, null, this::versions, () -> load(2L));
+        cache.evictOwner("fred");
+        cache.get(1L, null, this::versions, () -> load(1L));
+        assertEquals(2, loads.get());
+
+        // name of child owner included in both maps
+        cache.evictOwner("bob");
+        cache.get(1L, null, this::versions, () -> load(1L));
+        cache.get(2L, null, this::versions, () -> load(2L));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void disabled() {
+        ElementMapCache cache = cache(new SimpleMeterRegistry(), 0);
+        cache.get(1L, null, this::versions, () -> load(1L));
+        cache.get(1L, null, this::versions, () -> load(1L));
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,158 @@
+package ch.semafor.gendas.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ch.semafor.gendas.dao.jpa.CurrentValueListRepositoryJpa;
+import ch.semafor.gendas.dao.jpa.ElementRepositoryJpa;
+import ch.semafor.gendas.dao.jpa.ElementRowReader;
+import ch.semafor.gendas.exceptions.CoreException;
+import ch.semafor.gendas.exceptions.UsernameNotFoundException;
+import ch.semafor.gendas.model.CurrentValueList;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+@ActiveProfiles("jpa")
+@DataJpaTest
+@Import({ElementServiceJpa.class, OwnerNameCache.class, ElementRowReader.class, ElementTypeRegistry.class,
+        ElementMapCache.class})
+public class ElementServiceJpaSaveTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ElementServiceJpaSaveTest.class);
+
+    private static final String CUSTOMER = "com.mycompany.customerrelations.Customer";
+    private static final String PERSON = "com.mycompany.customerrelations.Person";
+
+    // statements of a changed save of customer 1 (67 when the element was loaded twice
+    // and the element and property types were queried on each save)
+    private static final long MAX_STATEMENTS = 45;
+
+    @Autowired
+    private ElementServiceJpa elementService;
+
+    @Autowired
+    private ElementRepositoryJpa elementRepository;
+
+    @Autowired
+    private CurrentValueListRepositoryJpa currentValueListRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    @Sql({"/gendas-data.sql"})
+    public void saveRefreshesSearchProjectionOfModifiedElementOnly() throws CoreException, UsernameNotFoundException {
+        Map<String, Long> before;
+        ReflectionTestUtils.setField(elementService, "searchProjection", true);
+        try {
+            assertEquals(8, elementService.rebuildSearchProjection());
+            before = projection();
+
+            Map<String, Object> map = elementService.getElementMap(1L);
+            map.put("name", "changed");
+            elementService.save(map, CUSTOMER, "bob", "changed");
+            entityManager.flush();
+        } finally {
+            ReflectionTestUtils.setField(elementService, "searchProjection", false);
+        }
+
+        Map<String, Long> after = projection();
+        assertEquals(before.keySet(), after.keySet());
+        assertTrue(!before.get("1.name").equals(after.get("1.name")), "name of customer 1 refreshed");
+        // unchanged children keep their rows
+        assertEquals(before.get("3.lastname"), after.get("3.lastname"));
+        assertEquals(before.get("2.city"), after.get("2.city"));
+    }
+
+    // id of the projection row by element id and property name
+    private Map<String, Long> projection() {
+        return currentValueListRepository.findAll().stream().collect(Collectors.toMap(
+                c -> c.getElementId() + "." + c.getName(), CurrentValueList::getId));
+    }
+
+    @Test
+    @Sql({"/gendas-data.sql"})
+    public void saveLoadsElementOnce() throws CoreException, UsernameNotFoundException {
+        Map<String, Object> map = elementService.getElementMap(1L);
+        logger.info("customer {}", map);
+        elementService.getElementType(CUSTOMER); // element types are loaded at startup
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics stats = elementRepository.getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        // unchanged
+        assertEquals(map, elementService.save(map, CUSTOMER, "bob", "unchanged"));
+        long unchanged = stats.getPrepareStatementCount();
+        entityManager.flush();
+        entityManager.clear();
+
+        stats.clear();
+        map.put("name", "changed");
+        long bytes = allocatedBytes();
+        Map<String, Object> saved = elementService.save(map, CUSTOMER, "bob", "changed");
+        entityManager.flush();
+        bytes = allocatedBytes() - bytes;
+        long changed = stats.getPrepareStatementCount();
+        stats.setStatisticsEnabled(false);
+        logger.info("statements of save: unchanged {}, changed {} ({} bytes allocated)", unchanged, changed, bytes);
+        assertTrue(changed <= MAX_STATEMENTS, "statements of save " + changed);
+        assertEquals("changed", saved.get("name"));
+        assertEquals("changed", elementService.getElementMap(1L).get("name"));
+    }
+
+    @Test
+    @Sql({"/gendas-data.sql"})
+    @SuppressWarnings("unchecked")
+    public void elementMapOfModifiedChild() throws CoreException, UsernameNotFoundException {
+        Map<String, Object> customer = elementService.getElementMap(1L);
+        Object name = customer.get("name");
+        customer.put("name", "not saved");
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics stats = elementRepository.getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        customer = elementService.getElementMap(1L);
+        long cached = stats.getPrepareStatementCount();
+        stats.setStatisticsEnabled(false);
+        logger.info("statements of cached element map {}", cached);
+        assertEquals(1, cached); // versions only
+        assertEquals(name, customer.get("name"));
+
+        // the person of the customer is modified
+        Map<String, Object> person = elementService.getElementMap(3L);
+        person.put("lastname", "changed");
+        elementService.save(person, PERSON, "bob", "person changed");
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(1L, elementRepository.findVersions(List.of(3L)).get(0)[1]);
+        customer = elementService.getElementMap(1L);
+        assertEquals("changed", ((List<Map<String, Object>>) customer.get("person")).get(0).get("lastname"));
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean t) {
+            return t.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import ch.semafor.gendas.dao.jpa.ElementRepositoryJpa;
+import ch.semafor.gendas.dao.jpa.ElementRowReader;
 import ch.semafor.gendas.exceptions.CoreException;
 import ch.semafor.gendas.model.Element;
 import ch.semafor.gendas.model.ElementType;
@@ -23,6 +24,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -35,6 +37,7 @@ import org.springframework.test.context.jdbc.Sql;
 public class ElementServiceJpaTest {
 
 	@TestConfiguration
+	@Import({OwnerNameCache.class, ElementTypeRegistry.class, ElementMapCache.class})
 	static class ElementServiceTestConfig {
 
 		@Bean
@@ -45,6 +48,9 @@ public class ElementServiceJpaTest {
 
 	@MockitoBean
 	private ElementRepositoryJpa elementRepositoryJpa;
+
+	@MockitoBean
+	private ElementRowReader elementRowReader;
 	
 	@Autowired
 	private ElementServiceJpa elementServiceJpa;
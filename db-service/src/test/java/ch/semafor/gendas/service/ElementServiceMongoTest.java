@@ -10,10 +10,12 @@ import ch.semafor.gendas.model.MapModification;
 import ch.semafor.gendas.model.Modification;
 import ch.semafor.gendas.model.Owner;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.mongodb.test.autoconfigure.DataMongoTest;
 import org.springframework.boot.test.context.TestConfiguration;
@@ -29,6 +31,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.mongodb.MongoDBContainer;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -73,6 +76,21 @@ public class ElementServiceMongoTest {
             return new SequenceGeneratorService();
         }
 
+        @Bean
+        public ElementRegistryService elementRegistryService() {
+            return new ElementRegistryService(100);
+        }
+
+        @Bean
+        public ElementTypeRegistry elementTypeRegistry() {
+            return new ElementTypeRegistry();
+        }
+
+        @Bean
+        public ElementMapCache elementMapCache(ObjectProvider<MeterRegistry> meterRegistry) {
+            return new ElementMapCache(meterRegistry, 10000, Duration.ofMinutes(1));
+        }
+
         @Bean
         public ElementServiceMongo elementServiceMongo() {
             return new ElementServiceMongo();
@@ -0,0 +1,65 @@
+package ch.semafor.gendas.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import ch.semafor.gendas.model.ElementType;
+import ch.semafor.gendas.model.PropertyType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class ElementTypeRegistryTest {
+
+    private final List<ElementType> types = new ArrayList<ElementType>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private List<ElementType> load() {
+        loads.incrementAndGet();
+        return new ArrayList<ElementType>(types);
+    }
+
+    private boolean exists(String name) {
+        return types.stream().anyMatch(t -> t.getName().equals(name));
+    }
+
+    @Test
+    public void loadOnce() {
+        ElementType person = new ElementType("person");
+        person.add(new PropertyType("name", PropertyType.Type.STRING));
+        types.add(person);
+
+        ElementTypeRegistry registry = new ElementTypeRegistry();
+        assertEquals(0, registry.getVersion());
+        assertSame(person, registry.get("person", this::load, this::exists));
+        assertSame(person, registry.get("person", this::load, this::exists));
+        assertEquals("name", registry.get("person", this::load, this::exists).getPropertyType("name").getName());
+        assertNull(registry.get("unknown", this::load, this::exists));
+        assertNull(registry.get(null, this::load, this::exists));
+        assertEquals(1, loads.get());
+        assertEquals(1, registry.getVersion());
+    }
+
+    @Test
+    public void reload() {
+        types.add(new ElementType("person"));
+        ElementTypeRegistry registry = new ElementTypeRegistry();
+        ElementType person = registry.get("person", this::load, this::exists);
+
+        // created by another instance
+        types.add(new ElementType("address"));
+        assertEquals("address", registry.get("address", this::load, this::exists).getName());
+        assertEquals(2, loads.get());
+        assertEquals(2, registry.getVersion());
+
+        // swapped after create
+        types.set(0, new ElementType("person"));
+        registry.invalidate();
+        assertNotSame(person, registry.get("person", this::load, this::exists));
+        assertEquals(3, loads.get());
+        assertEquals(3, registry.getVersion());
+    }
+}
@@ -0,0 +1,46 @@
+package ch.semafor.gendas.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.semafor.gendas.dao.OwnerRepository;
+import ch.semafor.gendas.model.Owner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+public class OwnerNameCacheTest {
+
+    @Test
+    public void cacheFullName() {
+        OwnerRepository ownerRepository = mock(OwnerRepository.class);
+        Owner hans = new Owner("hans");
+        hans.setFirstName("Hans");
+        hans.setLastName("Gerber");
+        when(ownerRepository.findByUsername("hans")).thenReturn(hans);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", registry);
+        OwnerNameCache cache = new OwnerNameCache(ownerRepository,
+                beans.getBeanProvider(MeterRegistry.class), 10, Duration.ofMinutes(1));
+
+        assertEquals("Hans Gerber", cache.fullName("hans"));
+        assertEquals("Hans Gerber", cache.fullName(new Owner("hans")));
+        assertNull(cache.fullName("unknown"));
+        verify(ownerRepository, times(1)).findByUsername("hans");
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "ownernames").tag("result", "hit")
+                .functionCounter().count());
+
+        hans.setLastName("Muster");
+        cache.evict("hans");
+        assertEquals("Hans Muster", cache.fullName("hans"));
+        verify(ownerRepository, times(2)).findByUsername("hans");
+    }
+}
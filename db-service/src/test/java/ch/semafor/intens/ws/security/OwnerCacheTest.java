@@ -0,0 +1,49 @@
+package ch.semafor.intens.ws.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import ch.semafor.gendas.events.OwnerSavedEvent;
+import ch.semafor.gendas.model.Owner;
+import ch.semafor.intens.ws.config.AppProperties;
+
+public class OwnerCacheTest {
+
+  @Test
+  public void keyIgnoresOrderOfGroups() {
+    String k1 = OwnerCache.key("me", "First", "Last", List.of("ROLE_USER", "ROLE_ADMIN"), List.of("/a", "/b"));
+    String k2 = OwnerCache.key("me", "First", "Last", List.of("ROLE_ADMIN", "ROLE_USER"), List.of("/b", "/a"));
+    assertEquals(k1, k2);
+    assertNotEquals(k1, OwnerCache.key("me", "First", "Other", List.of("ROLE_USER", "ROLE_ADMIN"), List.of("/a", "/b")));
+    assertNotEquals(k1, OwnerCache.key("you", "First", "Last", List.of("ROLE_USER", "ROLE_ADMIN"), List.of("/a", "/b")));
+  }
+
+  @Test
+  public void resolveOnce() {
+    OwnerCache cache = new OwnerCache(new AppProperties());
+    AtomicInteger calls = new AtomicInteger();
+    String key = OwnerCache.key("me", "First", "Last");
+    Owner o1 = cache.get(key, () -> { calls.incrementAndGet(); return new Owner("me"); });
+    Owner o2 = cache.get(key, () -> { calls.incrementAndGet(); return new Owner("me"); });
+    assertNotSame(o1, o2); // copies, the cached owner is not modified by callers
+    assertEquals("me", o2.getUsername());
+    assertEquals(1, calls.get());
+    o1.setPassword("changed");
+    assertEquals(null, cache.get(key, () -> new Owner("me")).getPassword());
+
+    cache.evict("me");
+    assertEquals(0, cache.size());
+    cache.get(key, () -> { calls.incrementAndGet(); return new Owner("me"); });
+    assertEquals(2, calls.get());
+
+    // owner saved
+    cache.onOwnerSaved(new OwnerSavedEvent("me"));
+    assertEquals(0, cache.size());
+  }
+}
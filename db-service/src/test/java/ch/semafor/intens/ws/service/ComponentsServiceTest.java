@@ -9,6 +9,7 @@ import ch.semafor.gendas.model.PropertyType;
 import ch.semafor.gendas.search.SearchEq;
 import ch.semafor.gendas.service.ElementService;
 import ch.semafor.gendas.service.UserService;
+import ch.semafor.intens.ws.config.AppProperties;
 import ch.semafor.intens.ws.config.ComponentProperties;
 import ch.semafor.intens.ws.model.Component;
 import ch.semafor.intens.ws.utils.DateTimeFormatter;
@@ -25,6 +26,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -33,8 +35,10 @@ import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
@@ -57,6 +61,8 @@ public class ComponentsServiceTest {
   StatelessKieSession kieSession;
   @Autowired
   ComponentProperties componentProperties;
+  @Autowired
+  AppProperties appProperties;
 
 	private ElementType getElementType(String typename){
 		ElementType et = new ElementType(typename);
@@ -170,6 +176,34 @@ public class ComponentsServiceTest {
 		assertEquals(expected, actual);
 	}
 	
+	@Test
+    @WithMockUser(username="tester",roles={"USER","ADMIN"})
+	public void streamComponents() throws IOException {
+		String type = "PmMotor";
+		List<Map<String,Object>> expected = load("/motors.json");
+		Mockito.when(userService.findOwnerByUsername("tester")).thenReturn(new Owner("tester"));
+		Mockito.when(elementService.getElementType(type)).thenReturn(new ElementType(type));
+		Mockito.when(elementService.streamByType(eq(type), eq(null), anyList(), any(), any(),
+				eq(-1), eq(appProperties.getMaxStreamSize()), eq(null), eq(true), eq(null), any())).thenAnswer(inv -> {
+					Consumer<Map<String, Object>> sink = inv.getArgument(10);
+					expected.forEach(sink);
+					return expected.size();
+				});
+
+		Map<String, String> qp = new HashMap<>();
+		qp.put("_stream", "");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		componentsService.streamByType(type, qp, response);
+
+		assertEquals(BaseServiceImpl.NDJSON, response.getContentType());
+		String[] lines = response.getContentAsString().split("\n");
+		assertEquals(expected.size(), lines.length);
+		ObjectMapper mapper = new ObjectMapper();
+		for (int i = 0; i < lines.length; i++) {
+			assertEquals(expected.get(i), mapper.readValue(lines[i], new TypeReference<Map<String,Object>>() {}));
+		}
+	}
+
 	private List<Map<String,Object>> load( String filename ) throws IOException{
     Resource resource = new ClassPathResource(filename);
     ObjectMapper mapper = new ObjectMapper();
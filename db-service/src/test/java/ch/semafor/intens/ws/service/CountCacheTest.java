@@ -0,0 +1,54 @@
+package ch.semafor.intens.ws.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import ch.semafor.gendas.search.SearchAccess;
+import ch.semafor.gendas.search.SearchAfter;
+import ch.semafor.gendas.search.SearchEq;
+import ch.semafor.intens.ws.config.AppProperties;
+
+public class CountCacheTest {
+
+  private Map<String, Object> search(Object name) {
+    Map<String, Object> search = new HashMap<>();
+    search.put("name", new SearchEq<>(name));
+    search.put(SearchAccess.KEY, new SearchAccess("me", List.of("g"), "approval", List.of("a"), List.of()));
+    return search;
+  }
+
+  @Test
+  public void countOncePerSearch() {
+    AppProperties properties = new AppProperties();
+    properties.setCountCacheTtl(Duration.ofSeconds(10));
+    CountCache cache = new CountCache(properties);
+    AtomicInteger calls = new AtomicInteger();
+
+    assertEquals(3, cache.get("Comp", null, search("x"), null, null, () -> { calls.incrementAndGet(); return 3; }));
+    // cursor and sort options do not change the count
+    Map<String, Object> next = search("x");
+    next.put(SearchAfter.KEY, new SearchAfter(4L, false));
+    next.put("ignorecase", true);
+    assertEquals(3, cache.get("Comp", null, next, null, null, () -> { calls.incrementAndGet(); return 5; }));
+    assertEquals(1, calls.get());
+
+    assertEquals(5, cache.get("Comp", null, search("y"), null, null, () -> { calls.incrementAndGet(); return 5; }));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void disabled() {
+    CountCache cache = new CountCache(new AppProperties());
+    AtomicInteger calls = new AtomicInteger();
+    cache.get("Comp", null, search("x"), null, null, () -> calls.incrementAndGet());
+    cache.get("Comp", null, search("x"), null, null, () -> calls.incrementAndGet());
+    assertEquals(2, calls.get());
+  }
+}
@@ -0,0 +1,103 @@
+package ch.semafor.intens.ws.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import ch.semafor.intens.ws.config.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+public class JsonCacheTest {
+
+  private final JsonMapper jsonMapper = JsonMapper.builder().build();
+  private JsonCache cache(int offHeapSize, SimpleMeterRegistry registry) {
+    AppProperties properties = new AppProperties();
+    properties.setJsonCacheSize(100000L);
+    properties.setJsonCacheOffHeapSize(offHeapSize);
+    StaticListableBeanFactory beans = new StaticListableBeanFactory();
+    beans.addBean("meterRegistry", registry);
+    return new JsonCache(properties, jsonMapper, beans.getBeanProvider(MeterRegistry.class));
+  }
+
+  private static Map<String, Object> component(long childVersion) {
+    Map<String, Object> child = new HashMap<>(Map.of("id", 2L, "version", childVersion, "name", "child"));
+    return new HashMap<>(Map.of("id", 1L, "version", 0L, "name", "comp", "children", List.of(child)));
+  }
+
+  private MockHttpServletResponse get(JsonCache cache, Map<String, Object> map, String etag, boolean gzip)
+      throws IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/services/rest/components/1");
+    if (etag != null) {
+      request.addHeader("If-None-Match", etag);
+    }
+    if (gzip) {
+      request.addHeader("Accept-Encoding", "gzip, deflate");
+    }
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    cache.write(map, request, response);
+    return response;
+  }
+
+  private Map<?, ?> json(MockHttpServletResponse response) throws IOException {
+    byte[] body = response.getContentAsByteArray();
+    if ("gzip".equals(response.getHeader("Content-Encoding"))) {
+      body = new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes();
+    }
+    return jsonMapper.readValue(body, Map.class);
+  }
+
+  @Test
+  public void serializeOncePerVersion() throws IOException {
+    for (int offHeapSize : new int[] {0, 100000}) {
+      SimpleMeterRegistry registry = new SimpleMeterRegistry();
+      JsonCache cache = cache(offHeapSize, registry);
+      Map<String, Object> comp = component(0);
+
+      MockHttpServletResponse plain = get(cache, comp, null, false);
+      assertNull(plain.getHeader("Content-Encoding"));
+      assertEquals(jsonMapper.readValue(jsonMapper.writeValueAsBytes(comp), Map.class), json(plain));
+      String etag = plain.getHeader("ETag");
+
+      MockHttpServletResponse gzipped = get(cache, comp, null, true);
+      assertEquals("gzip", gzipped.getHeader("Content-Encoding"));
+      assertEquals(json(plain), json(gzipped));
+      assertEquals(etag, gzipped.getHeader("ETag"));
+
+      MockHttpServletResponse notModified = get(cache, comp, etag, true);
+      assertEquals(304, notModified.getStatus());
+      assertEquals(0, notModified.getContentAsByteArray().length);
+
+      // child modified
+      MockHttpServletResponse modified = get(cache, component(1), etag, false);
+      assertEquals(200, modified.getStatus());
+      assertNotEquals(etag, modified.getHeader("ETag"));
+      assertEquals(1.0, registry.get("cache.gets").tag("cache", "json").tag("result", "hit")
+          .functionCounter().count());
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void unversioned() throws IOException {
+    Map<String, Object> comp = component(0);
+    ((List<Map<String, Object>>) comp.get("children")).get(0).remove("version");
+    assertNull(JsonCache.key(comp));
+    MockHttpServletResponse response = get(cache(0, new SimpleMeterRegistry()), comp, null, true);
+    assertNull(response.getHeader("ETag"));
+    assertEquals("comp", json(response).get("name"));
+  }
+}
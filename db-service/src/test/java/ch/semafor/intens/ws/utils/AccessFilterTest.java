@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ch.semafor.gendas.model.Group;
 import ch.semafor.gendas.model.Owner;
+import ch.semafor.gendas.search.SearchAccess;
 import ch.semafor.gendas.service.ElementService;
 import ch.semafor.gendas.service.UserService;
 import ch.semafor.intens.ws.config.ComponentProperties;
@@ -19,8 +20,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @SpringBootTest
 @ActiveProfiles("jpa")
@@ -146,6 +151,39 @@ public class AccessFilterTest {
     assertEquals(expected, accessFilter.filterProjects(l));
   }
 
+  @Test
+  public void searchAccess() {
+    Owner owner = new Owner("me");
+    Set<Group> memberOf = new HashSet<Group>();
+    memberOf.add(new Group("group1"));
+    owner.setGroups(memberOf);
+
+    AccessFilter accessFilter = new AccessFilter(owner, componentProperties);
+    SearchAccess access = accessFilter.getSearchAccess("project", "status");
+    assertEquals("me", access.getUser());
+    assertEquals(Set.of("group1"), access.getGroups());
+    assertEquals(Set.of("global", "local", "delivered", "obsolete"), access.getGroupCodes());
+    assertEquals(Set.of("global"), access.getOtherCodes());
+
+    Map<String, Object> search = accessFilter.searchComponents(null);
+    access = (SearchAccess) search.get(SearchAccess.KEY);
+    assertEquals(Set.of("tendered", "tested", "obsolete"), access.getOtherCodes());
+  }
+
+  @Test
+  public void trueKeysFromEnvironment() {
+    StandardEnvironment env = new StandardEnvironment();
+    env.getPropertySources().replace(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME,
+        new SystemEnvironmentPropertySource(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME,
+        Map.of("COMPONENT_APPROVAL_GROUP_X", "true", "COMPONENT_APPROVAL_GROUP_Y", "false")));
+    env.getPropertySources().addLast(new MapPropertySource("yml",
+        Map.of("component.approval.group.inPreparation", "true",
+            "component.approval.group.released.sub", "true")));
+    ComponentProperties props = new ComponentProperties();
+    ReflectionTestUtils.setField(props, "env", env);
+    assertEquals(Set.of("x", "inPreparation"), props.getTrueKeys("component.approval.group"));
+  }
+
   @Test
   public void copyComponent() {
     Owner owner = new Owner("me");